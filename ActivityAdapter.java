@@ -0,0 +1,75 @@
+package com.example.petmanagement;
+
+import android.text.format.DateUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.List;
+
+public class ActivityAdapter extends WindowedAdapter<ActivityEntry, ActivityAdapter.ActivityViewHolder> {
+    private static final DiffUtil.ItemCallback<ActivityEntry> DIFF_CALLBACK = new DiffUtil.ItemCallback<ActivityEntry>() {
+        @Override
+        public boolean areItemsTheSame(ActivityEntry oldItem, ActivityEntry newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(ActivityEntry oldItem, ActivityEntry newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    public ActivityAdapter(List<ActivityEntry> entries) {
+        super(DIFF_CALLBACK, entries);
+    }
+
+    @Override
+    public ActivityViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+            .inflate(android.R.layout.simple_list_item_2, parent, false);
+        return new ActivityViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(ActivityViewHolder holder, int position) {
+        holder.bind(getItem(position));
+    }
+
+    @Override
+    protected long getItemId(ActivityEntry entry) {
+        return entry.getId();
+    }
+
+    static class ActivityViewHolder extends RecyclerView.ViewHolder {
+        private TextView description;
+        private TextView when;
+
+        public ActivityViewHolder(View itemView) {
+            super(itemView);
+            description = itemView.findViewById(android.R.id.text1);
+            when = itemView.findViewById(android.R.id.text2);
+        }
+
+        public void bind(ActivityEntry entry) {
+            String name = entry.getPetName() != null ? entry.getPetName() : "A pet";
+            switch (entry.getType()) {
+                case ActivityEntry.ADDED:
+                    description.setText(name + " was added");
+                    break;
+                case ActivityEntry.SOLD:
+                    description.setText(name + " sold for " + Money.format(entry.getAmount()));
+                    break;
+                case ActivityEntry.DELETED:
+                    description.setText(name + " was removed");
+                    break;
+                default:
+                    description.setText(name + " was updated");
+                    break;
+            }
+            when.setText(DateUtils.getRelativeTimeSpanString(entry.getCreatedAt()));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.petmanagement;
+
+import java.util.Objects;
+
+/** One line of the Recent Activity feed, recorded by triggers on pets and sales. */
+public class ActivityEntry {
+    public static final String ADDED = "added";
+    public static final String EDITED = "edited";
+    public static final String DELETED = "deleted";
+    public static final String SOLD = "sold";
+
+    private final long id;
+    private final String type;
+    private final String petName;
+    private final long amount;
+    private final long createdAt;
+
+    public ActivityEntry(long id, String type, String petName, long amount, long createdAt) {
+        this.id = id;
+        this.type = type;
+        this.petName = petName;
+        this.amount = amount;
+        this.createdAt = createdAt;
+    }
+
+    public long getId() { return id; }
+    // One of ADDED, EDITED, DELETED or SOLD
+    public String getType() { return type; }
+    public String getPetName() { return petName; }
+    // The pet's price at the time, the sale price for SOLD; in minor units
+    public long getAmount() { return amount; }
+    // Epoch millis
+    public long getCreatedAt() { return createdAt; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ActivityEntry)) return false;
+        ActivityEntry other = (ActivityEntry) o;
+        return id == other.id
+            && amount == other.amount
+            && createdAt == other.createdAt
+            && Objects.equals(type, other.type)
+            && Objects.equals(petName, other.petName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, type, petName, amount, createdAt);
+    }
+}
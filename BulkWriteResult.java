@@ -0,0 +1,47 @@
+package com.example.petmanagement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Outcome of a bulk write: how many rows went in and which ones were rejected. */
+public class BulkWriteResult {
+    public static class RowFailure {
+        private final int index;
+        private final Pet pet;
+        private final Exception error;
+
+        public RowFailure(int index, Pet pet, Exception error) {
+            this.index = index;
+            this.pet = pet;
+            this.error = error;
+        }
+
+        // Position of the row in the input, starting at 0
+        public int getIndex() { return index; }
+        public Pet getPet() { return pet; }
+        public Exception getError() { return error; }
+    }
+
+    private int inserted;
+    private int updated;
+    private int skipped;
+    private int batches;
+    private final List<RowFailure> failures = new ArrayList<>();
+
+    void addInserted() { inserted++; }
+    void addUpdated() { updated++; }
+    void addSkipped() { skipped++; }
+    void addBatch() { batches++; }
+    void addFailure(int index, Pet pet, Exception error) {
+        failures.add(new RowFailure(index, pet, error));
+    }
+
+    public int getInserted() { return inserted; }
+    public int getUpdated() { return updated; }
+    // Rows left out because a pet with the same name and breed already exists
+    public int getSkipped() { return skipped; }
+    public int getBatches() { return batches; }
+    public List<RowFailure> getFailures() { return Collections.unmodifiableList(failures); }
+    public boolean hasFailures() { return !failures.isEmpty(); }
+}
@@ -0,0 +1,31 @@
+package com.example.petmanagement;
+
+public class DashboardStats {
+    private final int totalPets;
+    private final int availablePets;
+    private final int soldPets;
+    // Revenue figures are in minor units; see Money
+    private final long totalRevenue;
+    private final long currentMonthRevenue;
+    private final long previousMonthRevenue;
+    private final int lowStockItems;
+
+    public DashboardStats(int totalPets, int availablePets, int soldPets, long totalRevenue,
+                          long currentMonthRevenue, long previousMonthRevenue, int lowStockItems) {
+        this.totalPets = totalPets;
+        this.availablePets = availablePets;
+        this.soldPets = soldPets;
+        this.totalRevenue = totalRevenue;
+        this.currentMonthRevenue = currentMonthRevenue;
+        this.previousMonthRevenue = previousMonthRevenue;
+        this.lowStockItems = lowStockItems;
+    }
+
+    public int getTotalPets() { return totalPets; }
+    public int getAvailablePets() { return availablePets; }
+    public int getSoldPets() { return soldPets; }
+    public long getTotalRevenue() { return totalRevenue; }
+    public long getCurrentMonthRevenue() { return currentMonthRevenue; }
+    public long getPreviousMonthRevenue() { return previousMonthRevenue; }
+    public int getLowStockItems() { return lowStockItems; }
+}
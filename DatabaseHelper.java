@@ -3,17 +3,40 @@ package com.example.petmanagement;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteStatement;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.os.CancellationSignal;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
-public class DatabaseHelper extends SQLiteOpenHelper {
+public class DatabaseHelper extends SQLiteOpenHelper implements PetStore {
     private static final String DATABASE_NAME = "PetDB";
-    private static final int DATABASE_VERSION = 2;  // Increment this to trigger upgrade
+    static final int DATABASE_VERSION = 13;  // Increment this to trigger upgrade
 
     // Table name
     public static final String TABLE_PETS = "pets";
+    public static final String TABLE_PETS_FTS = "pets_fts";
+    public static final String TABLE_PET_STATS = "pet_stats";
+    public static final String TABLE_SALES = "sales";
+    public static final String TABLE_SALES_DAILY = "sales_daily";
+    public static final String TABLE_SALES_MONTHLY = "sales_monthly";
+    public static final String TABLE_SPECIES = "species";
+    public static final String TABLE_STOCK_ITEMS = "stock_items";
+    public static final String TABLE_STOCK_CHANGES = "stock_changes";
+    public static final String TABLE_ACTIVITY_LOG = "activity_log";
 
     // Column names
     public static final String COLUMN_ID = "_id";
@@ -23,38 +46,260 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static final String COLUMN_AVAILABLE = "available";
     public static final String COLUMN_DETAILS = "details";
     public static final String COLUMN_IMAGE_URI = "image_uri";
+    public static final String COLUMN_SPECIES_ID = "species_id";
 
-    // Create table SQL query
-    private static final String CREATE_PETS_TABLE =
-            "CREATE TABLE " + TABLE_PETS + " (" +
-                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
-                    COLUMN_NAME + " TEXT, " +
-                    COLUMN_BREED + " TEXT, " +
-                    COLUMN_PRICE + " REAL, " +
-                    COLUMN_AVAILABLE + " INTEGER, " +
-                    COLUMN_DETAILS + " TEXT, " +
-                    COLUMN_IMAGE_URI + " TEXT)";
-
-    public DatabaseHelper(Context context) {
+    // Summary table columns
+    public static final String COLUMN_TOTAL_COUNT = "total_count";
+    public static final String COLUMN_AVAILABLE_COUNT = "available_count";
+    public static final String COLUMN_SOLD_COUNT = "sold_count";
+    public static final String COLUMN_TOTAL_REVENUE = "total_revenue";
+
+    // Sales ledger and rollup columns
+    public static final String COLUMN_PET_ID = "pet_id";
+    public static final String COLUMN_SOLD_AT = "sold_at";
+    public static final String COLUMN_PERIOD = "period";
+    public static final String COLUMN_REVENUE = "revenue";
+    public static final String COLUMN_SALE_COUNT = "sale_count";
+
+    // Stock items table columns
+    public static final String COLUMN_SKU = "sku";
+    public static final String COLUMN_QUANTITY = "quantity";
+    public static final String COLUMN_REORDER_LEVEL = "reorder_level";
+    public static final String COLUMN_ITEM_ID = "item_id";
+    public static final String COLUMN_WAS_LOW = "was_low";
+    public static final String COLUMN_IS_LOW = "is_low";
+
+    // Activity log table columns
+    public static final String COLUMN_TYPE = "type";
+    public static final String COLUMN_PET_NAME = "pet_name";
+    public static final String COLUMN_AMOUNT = "amount";
+    public static final String COLUMN_CREATED_AT = "created_at";
+
+
+    // Column weights for bm25(): a hit in the name outranks breed, which outranks details
+    static final String FTS5_RANK = "bm25(" + TABLE_PETS_FTS + ", 10.0, 5.0, 1.0)";
+
+    // Rows per keyset page; KeysetPager loads and trims its lists in whole pages
+    static final int PAGE_SIZE = 50;
+
+    // Only what a list row shows; details stay on disk until a pet is opened
+    private static final String[] LIST_COLUMNS = {
+            COLUMN_ID, COLUMN_NAME, COLUMN_BREED, COLUMN_PRICE, COLUMN_AVAILABLE, COLUMN_IMAGE_URI
+    };
+    private static final String LIST_COLUMNS_P = "p." + String.join(", p.", LIST_COLUMNS);
+
+    // Served by idx_pets_natural_key
+    private static final String FIND_BY_NATURAL_KEY_SQL =
+            "SELECT " + COLUMN_ID + " FROM " + TABLE_PETS + " WHERE " +
+                    COLUMN_NAME + " = ? COLLATE NOCASE AND " + COLUMN_BREED + " = ? COLLATE NOCASE LIMIT 1";
+
+
+    static final String LOW_STOCK = COLUMN_QUANTITY + " <= " + COLUMN_REORDER_LEVEL;
+
+    private static final String[] STOCK_COLUMNS = {
+            COLUMN_ID, COLUMN_SKU, COLUMN_NAME, COLUMN_QUANTITY, COLUMN_REORDER_LEVEL
+    };
+
+    // Stock writes may also append to the change log through its triggers
+    private static final Set<String> STOCK_WRITE_TABLES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            TABLE_STOCK_ITEMS, TABLE_STOCK_CHANGES)));
+
+
+    private static final String ADJUST_STOCK_SQL =
+            "UPDATE " + TABLE_STOCK_ITEMS + " SET " + COLUMN_QUANTITY + " = " + COLUMN_QUANTITY + " + ?" +
+                    " WHERE " + COLUMN_ID + " = ? AND " + COLUMN_QUANTITY + " + ? >= 0";
+
+
+    private static final String[] ACTIVITY_COLUMNS = {
+            COLUMN_ID, COLUMN_TYPE, COLUMN_PET_NAME, COLUMN_AMOUNT, COLUMN_CREATED_AT
+    };
+
+    // Rows per transaction for the bulk writers unless the caller picks another size
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    static final String INSERT_PET_SQL =
+            "INSERT INTO " + TABLE_PETS + " (" + COLUMN_NAME + ", " + COLUMN_BREED + ", " +
+                    COLUMN_PRICE + ", " + COLUMN_AVAILABLE + ", " + COLUMN_DETAILS + ", " +
+                    COLUMN_IMAGE_URI + ", " + COLUMN_SPECIES_ID + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+    static final String UPDATE_PET_SQL =
+            "UPDATE " + TABLE_PETS + " SET " + COLUMN_NAME + " = ?, " + COLUMN_BREED + " = ?, " +
+                    COLUMN_PRICE + " = ?, " + COLUMN_AVAILABLE + " = ?, " + COLUMN_DETAILS + " = ?, " +
+                    COLUMN_IMAGE_URI + " = ?, " + COLUMN_SPECIES_ID + " = ? WHERE " + COLUMN_ID + " = ?";
+
+    private enum BulkMode { INSERT, UPDATE, UPSERT, INSERT_NEW }
+
+    /** Told after every committed batch, e.g. to save an import checkpoint. */
+    public interface BatchListener {
+        void onBatchCommitted(BulkWriteResult progress);
+    }
+
+    /** Told which tables a committed write touched. Runs on the writing thread. */
+    public interface TableObserver {
+        void onTablesChanged(Set<String> tables);
+    }
+
+    // A write to pets also moves everything its triggers maintain
+    private static final Set<String> PET_WRITE_TABLES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            TABLE_PETS, TABLE_PETS_FTS, TABLE_PET_STATS, TABLE_SALES, TABLE_SALES_DAILY, TABLE_SALES_MONTHLY,
+            TABLE_ACTIVITY_LOG)));
+
+    // Latency per public method, with the rows each call read or wrote; see Diagnostics
+    private static final Diagnostics.Timer TIMER_INSERT_PET = Diagnostics.timer("db insertPet");
+    private static final Diagnostics.Timer TIMER_WRITE_PETS = Diagnostics.timer("db insertPets/updatePets/upsertPets");
+    private static final Diagnostics.Timer TIMER_GET_ALL_PETS = Diagnostics.timer("db getAllPets");
+    private static final Diagnostics.Timer TIMER_GET_PET = Diagnostics.timer("db getPetById");
+    private static final Diagnostics.Timer TIMER_PET_PAGE = Diagnostics.timer("db getPetsAfter/Before/From");
+    private static final Diagnostics.Timer TIMER_SEARCH = Diagnostics.timer("db searchPets");
+    private static final Diagnostics.Timer TIMER_SPECIES_COUNTS = Diagnostics.timer("db getSpeciesCounts");
+    private static final Diagnostics.Timer TIMER_UPDATE_PET = Diagnostics.timer("db updatePet");
+    private static final Diagnostics.Timer TIMER_DELETE_PET = Diagnostics.timer("db deletePet");
+    private static final Diagnostics.Timer TIMER_DASHBOARD = Diagnostics.timer("db getDashboardStats");
+    private static final Diagnostics.Timer TIMER_MONTHLY_REVENUE = Diagnostics.timer("db getMonthlyRevenue");
+    private static final Diagnostics.Timer TIMER_DAILY_REVENUE = Diagnostics.timer("db getDailyRevenue");
+    private static final Diagnostics.Timer TIMER_INSERT_STOCK = Diagnostics.timer("db insertStockItem");
+    private static final Diagnostics.Timer TIMER_UPDATE_STOCK = Diagnostics.timer("db updateStockItem");
+    private static final Diagnostics.Timer TIMER_DELETE_STOCK = Diagnostics.timer("db deleteStockItem");
+    private static final Diagnostics.Timer TIMER_ADJUST_STOCK = Diagnostics.timer("db adjustStockQuantity");
+    private static final Diagnostics.Timer TIMER_STOCK_PAGE = Diagnostics.timer("db getStockItemsAfter/Before/From");
+    private static final Diagnostics.Timer TIMER_LOW_STOCK_COUNT = Diagnostics.timer("db getLowStockCount");
+    private static final Diagnostics.Timer TIMER_TAKE_LOW_STOCK = Diagnostics.timer("db takeNewLowStockItems");
+    private static final Diagnostics.Timer TIMER_RECENT_ACTIVITY = Diagnostics.timer("db getRecentActivity");
+    private static final Diagnostics.Timer TIMER_CLEAR_ALL = Diagnostics.timer("db clearAllData");
+    private static final Diagnostics.Timer TIMER_LOAD_CATALOG = Diagnostics.timer("db getPetCatalog");
+
+    private final Set<TableObserver> tableObservers = new CopyOnWriteArraySet<>();
+
+    private volatile Boolean ftsUsesFts5;
+
+    // Built by getPetCatalog. Single-pet writes hold catalogLock across the
+    // statement and the catalog update, so the catalog applies them in commit
+    // order; every write bumps catalogVersion, so a load racing one is retried
+    private final Object catalogLock = new Object();
+    private PetCatalog catalog;
+    private int catalogVersion;
+
+    // Page cache per connection, in KiB (negative values are KiB for SQLite)
+    private static final int CACHE_SIZE_KIB = 8 * 1024;
+
+    private static DatabaseHelper instance;
+
+    /**
+     * The one helper for the whole process. Every screen shares its
+     * connection pool; it is never closed and goes away with the process.
+     */
+    public static synchronized DatabaseHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new DatabaseHelper(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private DatabaseHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        // Readers keep going while a write (e.g. a bulk import) is in progress
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // With WAL, NORMAL only syncs at checkpoints and is still crash-safe
+        db.execSQL("PRAGMA synchronous = NORMAL");
+        db.execSQL("PRAGMA cache_size = -" + CACHE_SIZE_KIB);
+        db.execSQL("PRAGMA temp_store = MEMORY");
     }
 
     @Override
     public void onCreate(SQLiteDatabase db) {
-        db.execSQL(CREATE_PETS_TABLE);
+        ftsUsesFts5 = PetSchema.create(db::execSQL);
     }
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        PetSchema.Sql sql = db::execSQL;
         if (oldVersion < 2) {
             // Add image_uri column if upgrading from version 1
             db.execSQL("ALTER TABLE " + TABLE_PETS + 
                       " ADD COLUMN " + COLUMN_IMAGE_URI + " TEXT");
         }
+        if (oldVersion < 3) {
+            // Index the rows that already exist
+            ftsUsesFts5 = PetSchema.createSearchIndex(sql);
+            db.execSQL("INSERT INTO " + TABLE_PETS_FTS + "(" + TABLE_PETS_FTS + ") VALUES('rebuild')");
+        }
+        if (oldVersion < 4) {
+            db.execSQL(PetSchema.CREATE_NAME_INDEX);
+        }
+        if (oldVersion < 5) {
+            PetSchema.createStatsTable(sql);
+        }
+        if (oldVersion < 6) {
+            PetSchema.createSalesTables(sql);
+            // Pets sold before the ledger existed have no sale date, so book them now
+            db.execSQL("INSERT INTO " + TABLE_SALES + "(" + COLUMN_PET_ID + ", " + COLUMN_PRICE + ", " +
+                    COLUMN_SOLD_AT + ") SELECT " + COLUMN_ID + ", IFNULL(" + COLUMN_PRICE + ", 0), " +
+                    PetSchema.NOW_MILLIS + " FROM " + TABLE_PETS + " WHERE " + COLUMN_AVAILABLE + " = 0");
+        }
+        if (oldVersion < 7) {
+            db.execSQL(PetSchema.CREATE_NATURAL_KEY_INDEX);
+        }
+        if (oldVersion < 8) {
+            PetSchema.createFilterIndexes(sql);
+        }
+        if (oldVersion < 9) {
+            db.execSQL("ALTER TABLE " + TABLE_PETS + " ADD COLUMN " + COLUMN_SPECIES_ID +
+                    " INTEGER REFERENCES " + TABLE_SPECIES + "(" + COLUMN_ID + ")");
+            PetSchema.createSpeciesTable(sql);
+            // File existing pets by breed before indexing, so the update skips index maintenance
+            db.execSQL("UPDATE " + TABLE_PETS + " SET " + COLUMN_SPECIES_ID + " = " +
+                    Species.classifySql(COLUMN_BREED));
+            PetSchema.createSpeciesIndexes(sql);
+        }
+        if (oldVersion < 10) {
+            PetSchema.createStockTable(sql);
+        }
+        if (oldVersion < 11) {
+            // Items already low at upgrade time are taken as known, not alerted
+            PetSchema.createStockChangeLog(sql);
+        }
+        if (oldVersion < 12) {
+            PetSchema.createActivityLog(sql);
+        }
+        if (oldVersion < 13) {
+            ftsUsesFts5 = PetSchema.migrateToMinorUnits(sql);
+        }
+    }
+
+    private boolean usesFts5(SQLiteDatabase db) {
+        Boolean fts5 = ftsUsesFts5;
+        if (fts5 == null) {
+            Cursor cursor = db.rawQuery("SELECT sql FROM sqlite_master WHERE name = ?",
+                    new String[]{TABLE_PETS_FTS});
+            fts5 = cursor.moveToFirst() && cursor.getString(0).toLowerCase(Locale.ROOT).contains("fts5");
+            cursor.close();
+            ftsUsesFts5 = fts5;
+        }
+        return fts5;
+    }
+
+    public void addTableObserver(TableObserver observer) {
+        tableObservers.add(observer);
+    }
+
+    public void removeTableObserver(TableObserver observer) {
+        tableObservers.remove(observer);
+    }
+
+    private void notifyTablesChanged(Set<String> tables) {
+        for (TableObserver observer : tableObservers) {
+            observer.onTablesChanged(tables);
+        }
     }
 
     // CRUD Operations for Pets
-    public long insertPet(String name, String breed, double price, boolean available, String details, String imageUri) {
+    @Override
+    public long insertPet(String name, String breed, long price, boolean available, String details, String imageUri) {
+        long start = Diagnostics.start();
         SQLiteDatabase db = this.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(COLUMN_NAME, name);
@@ -63,30 +308,375 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COLUMN_AVAILABLE, available ? 1 : 0);
         values.put(COLUMN_DETAILS, details);
         values.put(COLUMN_IMAGE_URI, imageUri);
-        return db.insert(TABLE_PETS, null, values);
+        values.put(COLUMN_SPECIES_ID, Species.classify(breed));
+        long id;
+        synchronized (catalogLock) {
+            id = db.insert(TABLE_PETS, null, values);
+            if (id != -1) {
+                catalogVersion++;
+                if (catalog != null) {
+                    catalog.put(id, name, breed, price, available, imageUri);
+                }
+            }
+        }
+        if (id != -1) {
+            notifyTablesChanged(PET_WRITE_TABLES);
+        }
+        TIMER_INSERT_PET.stop(start, id != -1 ? 1 : 0);
+        return id;
+    }
+
+    @Override
+    public BulkWriteResult insertPets(Iterable<Pet> pets) {
+        return insertPets(pets.iterator(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Inserts every pet through one compiled statement, committing every
+     * batchSize rows. A row that fails is recorded in the result and skipped;
+     * the rest of its batch still commits. Pet ids are ignored.
+     */
+    public BulkWriteResult insertPets(Iterator<Pet> pets, int batchSize) {
+        return writePets(pets, batchSize, BulkMode.INSERT);
+    }
+
+    public BulkWriteResult updatePets(Iterable<Pet> pets) {
+        return updatePets(pets.iterator(), DEFAULT_BATCH_SIZE);
+    }
+
+    /** Updates pets by id in batches; an id with no row counts as a failure. */
+    public BulkWriteResult updatePets(Iterator<Pet> pets, int batchSize) {
+        return writePets(pets, batchSize, BulkMode.UPDATE);
+    }
+
+    public BulkWriteResult upsertPets(Iterable<Pet> pets) {
+        return upsertPets(pets.iterator(), DEFAULT_BATCH_SIZE);
+    }
+
+    /** Updates pets whose id exists and inserts the rest, in batches. */
+    public BulkWriteResult upsertPets(Iterator<Pet> pets, int batchSize) {
+        return writePets(pets, batchSize, BulkMode.UPSERT);
+    }
+
+    /**
+     * Inserts pets whose name and breed (ignoring case) are not in the table
+     * yet, batch by batch, and counts the others as skipped. Duplicates
+     * within the input are caught too, since earlier rows are visible to the
+     * later lookups. listener may be null.
+     */
+    public BulkWriteResult insertNewPets(Iterator<Pet> pets, int batchSize, BatchListener listener) {
+        return writePets(pets, batchSize, BulkMode.INSERT_NEW, listener);
+    }
+
+    private BulkWriteResult writePets(Iterator<Pet> pets, int batchSize, BulkMode mode) {
+        return writePets(pets, batchSize, mode, null);
+    }
+
+    private BulkWriteResult writePets(Iterator<Pet> pets, int batchSize, BulkMode mode, BatchListener listener) {
+        long start = Diagnostics.start();
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        SQLiteDatabase db = this.getWritableDatabase();
+        BulkWriteResult result = new BulkWriteResult();
+        SQLiteStatement insert = mode != BulkMode.UPDATE ? db.compileStatement(INSERT_PET_SQL) : null;
+        SQLiteStatement update = mode == BulkMode.UPDATE || mode == BulkMode.UPSERT
+                ? db.compileStatement(UPDATE_PET_SQL) : null;
+        SQLiteStatement find = mode == BulkMode.INSERT_NEW ? db.compileStatement(FIND_BY_NATURAL_KEY_SQL) : null;
+        int index = 0;
+        try {
+            while (pets.hasNext()) {
+                int writtenBefore = result.getInserted() + result.getUpdated();
+                db.beginTransaction();
+                try {
+                    for (int inBatch = 0; inBatch < batchSize && pets.hasNext(); inBatch++, index++) {
+                        Pet pet = pets.next();
+                        try {
+                            if (find != null && exists(find, pet)) {
+                                result.addSkipped();
+                            } else {
+                                writePet(insert, update, pet, mode, result);
+                            }
+                        } catch (SQLException e) {
+                            result.addFailure(index, pet, e);
+                        }
+                    }
+                    db.setTransactionSuccessful();
+                    result.addBatch();
+                } finally {
+                    db.endTransaction();
+                }
+                if (result.getInserted() + result.getUpdated() > writtenBefore) {
+                    dropCatalog();
+                    notifyTablesChanged(PET_WRITE_TABLES);
+                }
+                if (listener != null) {
+                    listener.onBatchCommitted(result);
+                }
+            }
+        } finally {
+            if (insert != null) insert.close();
+            if (update != null) update.close();
+            if (find != null) find.close();
+        }
+        TIMER_WRITE_PETS.stop(start, result.getInserted() + result.getUpdated());
+        return result;
+    }
+
+    private static boolean exists(SQLiteStatement find, Pet pet) {
+        find.clearBindings();
+        bindText(find, 1, pet.getName());
+        bindText(find, 2, pet.getBreed());
+        try {
+            find.simpleQueryForLong();
+            return true;
+        } catch (SQLiteDoneException e) {
+            return false;
+        }
+    }
+
+    private void writePet(SQLiteStatement insert, SQLiteStatement update, Pet pet,
+                          BulkMode mode, BulkWriteResult result) {
+        if ((mode == BulkMode.UPDATE || mode == BulkMode.UPSERT) && pet.getId() > 0) {
+            bindPet(update, pet);
+            update.bindLong(8, pet.getId());
+            if (update.executeUpdateDelete() > 0) {
+                result.addUpdated();
+                return;
+            }
+            if (mode == BulkMode.UPDATE) {
+                throw new SQLException("No pet with id " + pet.getId());
+            }
+        }
+        bindPet(insert, pet);
+        if (insert.executeInsert() == -1) {
+            throw new SQLException("Insert failed for " + pet.getName());
+        }
+        result.addInserted();
+    }
+
+    private static void bindPet(SQLiteStatement statement, Pet pet) {
+        statement.clearBindings();
+        bindText(statement, 1, pet.getName());
+        bindText(statement, 2, pet.getBreed());
+        statement.bindLong(3, pet.getPrice());
+        statement.bindLong(4, pet.isAvailable() ? 1 : 0);
+        bindText(statement, 5, pet.getDetails());
+        bindText(statement, 6, pet.getImageUri());
+        statement.bindLong(7, Species.classify(pet.getBreed()));
     }
 
+    private static void bindText(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    @Override
     public List<Pet> getAllPets() {
-        List<Pet> pets = new ArrayList<>();
+        long start = Diagnostics.start();
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.query(TABLE_PETS, null, null, null, null, null, null);
+        List<Pet> pets = readPets(db.query(TABLE_PETS, null, null, null, null, null, null));
+        TIMER_GET_ALL_PETS.stop(start, pets.size());
+        return pets;
+    }
 
+    /** The full pet, details included, or null if it no longer exists. */
+    @Override
+    public Pet getPetById(long petId) {
+        long start = Diagnostics.start();
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<Pet> pets = readPets(db.query(TABLE_PETS, null, COLUMN_ID + " = ?",
+                new String[]{String.valueOf(petId)}, null, null, null));
+        TIMER_GET_PET.stop(start, pets.size());
+        return pets.isEmpty() ? null : pets.get(0);
+    }
+
+    /**
+     * Returns up to {@code limit} pets matching the query's filter that sort
+     * after {@code anchor} in the query's order, or the first page when
+     * anchor is null. The anchor is the last row of the previous page, so
+     * each page is a single index range scan however deep into the list it
+     * is. The query's text is ignored; searches go through searchPets.
+     */
+    public List<PetListItem> getPetsAfter(PetQuery query, PetListItem anchor, int limit) {
+        return queryPage(query, anchor, true, false, limit);
+    }
+
+    /** Returns up to {@code limit} pets that sort just before {@code anchor}, in list order. */
+    public List<PetListItem> getPetsBefore(PetQuery query, PetListItem anchor, int limit) {
+        List<PetListItem> pets = queryPage(query, anchor, false, false, limit);
+        Collections.reverse(pets);
+        return pets;
+    }
+
+    /**
+     * Like getPetsAfter but starts at {@code anchor} itself, or where it
+     * would sort if it has since been deleted. Used to re-read the loaded
+     * window in place after the table changes.
+     */
+    public List<PetListItem> getPetsFrom(PetQuery query, PetListItem anchor, int limit) {
+        return queryPage(query, anchor, true, true, limit);
+    }
+
+    // Every filter and sort combination has an index that yields rows already
+    // in order: idx_pets_name or idx_pets_price, led by available or
+    // species_id when filtering. So a page never needs a temp B-tree sort.
+    private List<PetListItem> queryPage(PetQuery query, PetListItem anchor,
+                                        boolean forward, boolean inclusive, int limit) {
+        long start = Diagnostics.start();
+        PetQuery.Sort sort = pageSort(query);
+        boolean ascending = isAscending(sort) == forward;
+        StringBuilder selection = new StringBuilder();
+        List<String> args = new ArrayList<>();
+        appendFilter(query, "", selection, args);
+        if (anchor != null) {
+            String op = ascending ? ">" : "<";
+            String key = sortKey(sort, "");
+            String value = sortValue(sort, anchor);
+            // Written as "key >= ? AND (...)" rather than a plain OR so SQLite can seek the index
+            appendAnd(selection, key + " " + op + "= ? AND (" + key + " " + op + " ? OR " +
+                    COLUMN_ID + " " + op + (inclusive ? "=" : "") + " ?)");
+            args.add(value);
+            args.add(value);
+            args.add(String.valueOf(anchor.getId()));
+        }
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<PetListItem> items = readListItems(db.query(TABLE_PETS, LIST_COLUMNS,
+                selection.length() > 0 ? selection.toString() : null,
+                args.toArray(new String[0]), null, null,
+                orderBy(sort, ascending, ""), limit > 0 ? String.valueOf(limit) : null));
+        TIMER_PET_PAGE.stop(start, items.size());
+        return items;
+    }
+
+    /**
+     * Every species with its number of pets. Each count is a range scan of
+     * one of the species_id indexes, which cover it, so no pet rows are read.
+     */
+    public List<Species> getSpeciesCounts() {
+        long start = Diagnostics.start();
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT s." + COLUMN_ID + ", s." + COLUMN_NAME +
+                ", (SELECT COUNT(*) FROM " + TABLE_PETS + " p WHERE p." + COLUMN_SPECIES_ID + " = s." + COLUMN_ID + ")" +
+                " FROM " + TABLE_SPECIES + " s ORDER BY s." + COLUMN_ID, null);
+        List<Species> species = new ArrayList<>(cursor.getCount());
         while (cursor.moveToNext()) {
-            pets.add(new Pet(
-                cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_ID)),
-                cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_NAME)),
-                cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_BREED)),
-                cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_PRICE)),
-                cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_AVAILABLE)) == 1,
-                cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_DETAILS)),
-                cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_IMAGE_URI))
-            ));
+            species.add(new Species(cursor.getLong(0), cursor.getString(1), cursor.getInt(2)));
         }
         cursor.close();
-        return pets;
+        TIMER_SPECIES_COUNTS.stop(start, species.size());
+        return species;
     }
 
+    private static PetQuery.Sort pageSort(PetQuery query) {
+        return query.getSort() != null ? query.getSort() : PetQuery.Sort.NAME_ASC;
+    }
+
+    private static boolean isAscending(PetQuery.Sort sort) {
+        return sort == PetQuery.Sort.NAME_ASC || sort == PetQuery.Sort.PRICE_ASC;
+    }
+
+    private static String sortKey(PetQuery.Sort sort, String prefix) {
+        return sort == PetQuery.Sort.PRICE_ASC || sort == PetQuery.Sort.PRICE_DESC
+                ? prefix + COLUMN_PRICE
+                : prefix + COLUMN_NAME + " COLLATE NOCASE";
+    }
+
+    // Bound as text; the INTEGER affinity of price turns it back into a number
+    private static String sortValue(PetQuery.Sort sort, PetListItem anchor) {
+        if (sort == PetQuery.Sort.PRICE_ASC || sort == PetQuery.Sort.PRICE_DESC) {
+            return String.valueOf(anchor.getPrice());
+        }
+        return anchor.getName() != null ? anchor.getName() : "";
+    }
+
+    private static String orderBy(PetQuery.Sort sort, boolean ascending, String prefix) {
+        String direction = ascending ? " ASC" : " DESC";
+        return sortKey(sort, prefix) + direction + ", " + prefix + COLUMN_ID + direction;
+    }
+
+    private static void appendFilter(PetQuery query, String prefix, StringBuilder selection, List<String> args) {
+        if (query.getAvailability() != PetQuery.Availability.ALL) {
+            appendAnd(selection, prefix + COLUMN_AVAILABLE + " = ?");
+            args.add(query.getAvailability() == PetQuery.Availability.AVAILABLE ? "1" : "0");
+        }
+        if (query.getSpeciesId() != PetQuery.ANY_SPECIES) {
+            appendAnd(selection, prefix + COLUMN_SPECIES_ID + " = ?");
+            args.add(String.valueOf(query.getSpeciesId()));
+        }
+    }
+
+    private static void appendAnd(StringBuilder selection, String clause) {
+        if (selection.length() > 0) {
+            selection.append(" AND ");
+        }
+        selection.append(clause);
+    }
+
+    /**
+     * The pets table in memory; see PetCatalog. The first call reads every
+     * pet in one pass, so call it off the main thread. Later calls return
+     * the same catalog until a bulk write or clearAllData drops it.
+     */
+    public PetCatalog getPetCatalog() {
+        while (true) {
+            int version;
+            synchronized (catalogLock) {
+                if (catalog != null) return catalog;
+                version = catalogVersion;
+            }
+            long start = Diagnostics.start();
+            PetCatalog loaded = new PetCatalog();
+            SQLiteDatabase db = this.getReadableDatabase();
+            Cursor cursor = db.query(TABLE_PETS, LIST_COLUMNS, null, null, null, null, COLUMN_ID);
+            while (cursor.moveToNext()) {
+                loaded.put(cursor.getLong(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getLong(3), cursor.getInt(4) == 1, cursor.getString(5));
+            }
+            cursor.close();
+            TIMER_LOAD_CATALOG.stop(start, loaded.size());
+            synchronized (catalogLock) {
+                if (catalog != null) return catalog;
+                if (version == catalogVersion) {
+                    catalog = loaded;
+                    return loaded;
+                }
+            }
+        }
+    }
+
+    /** The catalog if getPetCatalog has already loaded it, else null; never reads the table. */
+    public PetCatalog getLoadedPetCatalog() {
+        synchronized (catalogLock) {
+            return catalog;
+        }
+    }
+
+    private void dropCatalog() {
+        synchronized (catalogLock) {
+            catalogVersion++;
+            catalog = null;
+        }
+    }
+
+    /**
+     * Cursor over up to {@code limit} pets with an id above {@code afterId},
+     * in id order. Lets exports walk the table one primary-key range at a
+     * time without building Pet objects. The caller closes the cursor.
+     */
+    public Cursor queryPetsAfterId(long afterId, int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        return db.query(TABLE_PETS, null, COLUMN_ID + " > ?",
+                new String[]{String.valueOf(afterId)}, null, null,
+                COLUMN_ID + " ASC", String.valueOf(limit));
+    }
+
+    @Override
     public int updatePet(Pet pet) {
+        long start = Diagnostics.start();
         SQLiteDatabase db = this.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(COLUMN_NAME, pet.getName());
@@ -95,102 +685,463 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COLUMN_AVAILABLE, pet.isAvailable() ? 1 : 0);
         values.put(COLUMN_DETAILS, pet.getDetails());
         values.put(COLUMN_IMAGE_URI, pet.getImageUri());
+        values.put(COLUMN_SPECIES_ID, Species.classify(pet.getBreed()));
 
-        return db.update(TABLE_PETS, values, 
-            COLUMN_ID + " = ?", 
-            new String[]{String.valueOf(pet.getId())});
+        int rows;
+        synchronized (catalogLock) {
+            rows = db.update(TABLE_PETS, values, 
+                COLUMN_ID + " = ?", 
+                new String[]{String.valueOf(pet.getId())});
+            if (rows > 0) {
+                catalogVersion++;
+                if (catalog != null) {
+                    catalog.put(pet);
+                }
+            }
+        }
+        if (rows > 0) {
+            notifyTablesChanged(PET_WRITE_TABLES);
+        }
+        TIMER_UPDATE_PET.stop(start, rows);
+        return rows;
     }
 
+    @Override
     public int deletePet(long petId) {
+        long start = Diagnostics.start();
         SQLiteDatabase db = this.getWritableDatabase();
-        return db.delete(TABLE_PETS, 
-            COLUMN_ID + " = ?", 
-            new String[]{String.valueOf(petId)});
+        int rows;
+        synchronized (catalogLock) {
+            rows = db.delete(TABLE_PETS, 
+                COLUMN_ID + " = ?", 
+                new String[]{String.valueOf(petId)});
+            if (rows > 0) {
+                catalogVersion++;
+                if (catalog != null) {
+                    catalog.remove(petId);
+                }
+            }
+        }
+        if (rows > 0) {
+            notifyTablesChanged(PET_WRITE_TABLES);
+        }
+        TIMER_DELETE_PET.stop(start, rows);
+        return rows;
     }
 
-    public List<Pet> searchPets(String query) {
-        List<Pet> pets = new ArrayList<>();
+    @Override
+    public List<PetListItem> searchPets(String query) {
+        return searchPets(PetQuery.ALL.withText(query), null);
+    }
+
+    // The signal lets a newer search abort this one while SQLite is still stepping through rows
+    public List<PetListItem> searchPets(PetQuery query, CancellationSignal cancellationSignal) {
         SQLiteDatabase db = this.getReadableDatabase();
-        
-        String selection = COLUMN_NAME + " LIKE ? OR " + COLUMN_BREED + " LIKE ?";
-        String[] selectionArgs = new String[]{"%" + query + "%", "%" + query + "%"};
-        
-        Cursor cursor = db.query(TABLE_PETS, null, selection, selectionArgs, null, null, null);
+        String match = PetSchema.toMatchQuery(query.getText());
+        if (match == null) {
+            // Nothing to match: the first page of the unfiltered list, as the pager would load it
+            return queryPage(query, null, true, false, PAGE_SIZE);
+        }
+        long start = Diagnostics.start();
 
+        StringBuilder filter = new StringBuilder();
+        List<String> filterArgs = new ArrayList<>();
+        appendFilter(query, "p.", filter, filterArgs);
+        String where = " WHERE " + TABLE_PETS_FTS + " MATCH ?" +
+                (filter.length() > 0 ? " AND " + filter : "");
+        PetQuery.Sort sort = query.getSort();
+
+        String sql;
+        List<String> args = new ArrayList<>();
+        args.add(match);
+        args.addAll(filterArgs);
+        if (usesFts5(db)) {
+            sql = "SELECT " + LIST_COLUMNS_P + " FROM " + TABLE_PETS + " p JOIN " + TABLE_PETS_FTS + " f" +
+                    " ON f.rowid = p." + COLUMN_ID + where +
+                    " ORDER BY " + (sort != null ? orderBy(sort, isAscending(sort), "p.") : FTS5_RANK);
+        } else if (sort != null) {
+            sql = "SELECT " + LIST_COLUMNS_P + " FROM " + TABLE_PETS + " p JOIN " + TABLE_PETS_FTS + " f" +
+                    " ON f.docid = p." + COLUMN_ID + where +
+                    " ORDER BY " + orderBy(sort, isAscending(sort), "p.");
+        } else {
+            // FTS4 has no built-in ranking, so put name matches ahead of the rest
+            sql = "SELECT " + LIST_COLUMNS_P + " FROM " + TABLE_PETS + " p JOIN " + TABLE_PETS_FTS + " f" +
+                    " ON f.docid = p." + COLUMN_ID + where +
+                    " ORDER BY p." + COLUMN_ID + " IN (SELECT docid FROM " + TABLE_PETS_FTS +
+                    " WHERE " + COLUMN_NAME + " MATCH ?) DESC, p." + COLUMN_NAME + " COLLATE NOCASE";
+            args.add(match);
+        }
+        List<PetListItem> items = readListItems(db.rawQuery(sql, args.toArray(new String[0]), cancellationSignal));
+        TIMER_SEARCH.stop(start, items.size());
+        return items;
+    }
+
+    // Column indices are looked up once per cursor, not once per row
+    private List<Pet> readPets(Cursor cursor) {
+        List<Pet> pets = new ArrayList<>(cursor.getCount());
+        int id = cursor.getColumnIndexOrThrow(COLUMN_ID);
+        int name = cursor.getColumnIndexOrThrow(COLUMN_NAME);
+        int breed = cursor.getColumnIndexOrThrow(COLUMN_BREED);
+        int price = cursor.getColumnIndexOrThrow(COLUMN_PRICE);
+        int available = cursor.getColumnIndexOrThrow(COLUMN_AVAILABLE);
+        int details = cursor.getColumnIndexOrThrow(COLUMN_DETAILS);
+        int imageUri = cursor.getColumnIndexOrThrow(COLUMN_IMAGE_URI);
         while (cursor.moveToNext()) {
             pets.add(new Pet(
-                cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_ID)),
-                cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_NAME)),
-                cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_BREED)),
-                cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_PRICE)),
-                cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_AVAILABLE)) == 1,
-                cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_DETAILS)),
-                cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_IMAGE_URI))
+                cursor.getLong(id),
+                cursor.getString(name),
+                cursor.getString(breed),
+                cursor.getLong(price),
+                cursor.getInt(available) == 1,
+                cursor.getString(details),
+                cursor.getString(imageUri)
             ));
         }
         cursor.close();
         return pets;
     }
 
-    public int getTotalPetsCount() {
+    // Expects a cursor over LIST_COLUMNS, in that order
+    private List<PetListItem> readListItems(Cursor cursor) {
+        List<PetListItem> items = new ArrayList<>(cursor.getCount());
+        while (cursor.moveToNext()) {
+            items.add(new PetListItem(
+                cursor.getLong(0),
+                cursor.getString(1),
+                cursor.getString(2),
+                cursor.getLong(3),
+                cursor.getInt(4) == 1,
+                cursor.getString(5)
+            ));
+        }
+        cursor.close();
+        return items;
+    }
+
+    /** All dashboard figures from primary-key lookups on the summary and monthly rollup tables. */
+    @Override
+    public DashboardStats getDashboardStats() {
+        long start = Diagnostics.start();
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM " + TABLE_PETS, null);
-        int count = 0;
+        Cursor cursor = db.query(TABLE_PET_STATS,
+            new String[]{COLUMN_TOTAL_COUNT, COLUMN_AVAILABLE_COUNT, COLUMN_SOLD_COUNT, COLUMN_TOTAL_REVENUE},
+            COLUMN_ID + " = 1", null, null, null, null);
+        long currentMonth = getMonthRevenue(db, PetSchema.monthKey(0));
+        long previousMonth = getMonthRevenue(db, PetSchema.monthKey(1));
+        int lowStock = getLowStockCount();
+        DashboardStats stats = new DashboardStats(0, 0, 0, 0, currentMonth, previousMonth, lowStock);
         if (cursor.moveToFirst()) {
-            count = cursor.getInt(0);
+            stats = new DashboardStats(
+                cursor.getInt(0),
+                cursor.getInt(1),
+                cursor.getInt(2),
+                cursor.getLong(3),
+                currentMonth,
+                previousMonth,
+                lowStock);
         }
         cursor.close();
-        return count;
+        TIMER_DASHBOARD.stop(start, 1);
+        return stats;
+    }
+
+    public int getTotalPetsCount() {
+        return getDashboardStats().getTotalPets();
     }
 
     public int getAvailablePetsCount() {
+        return getDashboardStats().getAvailablePets();
+    }
+
+    public long getTotalRevenue() {
+        return getDashboardStats().getTotalRevenue();
+    }
+
+    public long getCurrentMonthRevenue() {
+        return getMonthRevenue(getReadableDatabase(), PetSchema.monthKey(0));
+    }
+
+    /** The last {@code months} monthly buckets, oldest first, including months with no sales. */
+    @Override
+    public List<RevenueBucket> getMonthlyRevenue(int months) {
+        long start = Diagnostics.start();
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<RevenueBucket> buckets = new ArrayList<>();
+        for (int i = months - 1; i >= 0; i--) {
+            buckets.add(readBucket(db, TABLE_SALES_MONTHLY, PetSchema.monthKey(i)));
+        }
+        TIMER_MONTHLY_REVENUE.stop(start, buckets.size());
+        return buckets;
+    }
+
+    /** The last {@code days} daily buckets, oldest first, including days with no sales. */
+    public List<RevenueBucket> getDailyRevenue(int days) {
+        long start = Diagnostics.start();
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery(
-            "SELECT COUNT(*) FROM " + TABLE_PETS + 
-            " WHERE " + COLUMN_AVAILABLE + " = 1", null);
-        int count = 0;
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        Calendar day = Calendar.getInstance();
+        day.add(Calendar.DAY_OF_MONTH, -(days - 1));
+        List<RevenueBucket> buckets = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            buckets.add(readBucket(db, TABLE_SALES_DAILY, format.format(day.getTime())));
+            day.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        TIMER_DAILY_REVENUE.stop(start, buckets.size());
+        return buckets;
+    }
+
+    private long getMonthRevenue(SQLiteDatabase db, String month) {
+        return readBucket(db, TABLE_SALES_MONTHLY, month).getRevenue();
+    }
+
+    private RevenueBucket readBucket(SQLiteDatabase db, String table, String period) {
+        Cursor cursor = db.query(table, new String[]{COLUMN_REVENUE, COLUMN_SALE_COUNT},
+            COLUMN_PERIOD + " = ?", new String[]{period}, null, null, null);
+        RevenueBucket bucket = new RevenueBucket(period, 0, 0);
         if (cursor.moveToFirst()) {
-            count = cursor.getInt(0);
+            bucket = new RevenueBucket(period, cursor.getLong(0), cursor.getInt(1));
         }
         cursor.close();
-        return count;
+        return bucket;
+    }
+
+    public int getSoldPetsCount() {
+        return getDashboardStats().getSoldPets();
+    }
+
+    // Stock items
+
+    /** Returns the new row id, or -1 if the SKU is already taken. */
+    public long insertStockItem(String sku, String name, int quantity, int reorderLevel) {
+        long start = Diagnostics.start();
+        SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_SKU, sku);
+        values.put(COLUMN_NAME, name);
+        values.put(COLUMN_QUANTITY, quantity);
+        values.put(COLUMN_REORDER_LEVEL, reorderLevel);
+        long id = db.insert(TABLE_STOCK_ITEMS, null, values);
+        if (id != -1) {
+            notifyTablesChanged(STOCK_WRITE_TABLES);
+        }
+        TIMER_INSERT_STOCK.stop(start, id != -1 ? 1 : 0);
+        return id;
+    }
+
+    /**
+     * Saves SKU, name and reorder level. Quantity is left alone so an edit
+     * can't overwrite a concurrent adjustStockQuantity; use that to change it.
+     */
+    public int updateStockItem(StockItem item) {
+        long start = Diagnostics.start();
+        SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_SKU, item.getSku());
+        values.put(COLUMN_NAME, item.getName());
+        values.put(COLUMN_REORDER_LEVEL, item.getReorderLevel());
+        int rows = db.update(TABLE_STOCK_ITEMS, values,
+            COLUMN_ID + " = ?",
+            new String[]{String.valueOf(item.getId())});
+        if (rows > 0) {
+            notifyTablesChanged(STOCK_WRITE_TABLES);
+        }
+        TIMER_UPDATE_STOCK.stop(start, rows);
+        return rows;
     }
 
-    public double getTotalRevenue() {
+    public int deleteStockItem(long itemId) {
+        long start = Diagnostics.start();
+        SQLiteDatabase db = this.getWritableDatabase();
+        int rows = db.delete(TABLE_STOCK_ITEMS,
+            COLUMN_ID + " = ?",
+            new String[]{String.valueOf(itemId)});
+        if (rows > 0) {
+            notifyTablesChanged(STOCK_WRITE_TABLES);
+        }
+        TIMER_DELETE_STOCK.stop(start, rows);
+        return rows;
+    }
+
+    /**
+     * Adds delta (negative to take stock out) in one UPDATE that reads and
+     * writes the quantity itself, so concurrent adjustments never lose each
+     * other. Returns the new quantity, or -1 if the item is gone or would
+     * drop below zero, in which case nothing changes.
+     */
+    public int adjustStockQuantity(long itemId, int delta) {
+        long start = Diagnostics.start();
+        SQLiteDatabase db = this.getWritableDatabase();
+        int quantity = -1;
+        db.beginTransaction();
+        try (SQLiteStatement adjust = db.compileStatement(ADJUST_STOCK_SQL)) {
+            adjust.bindLong(1, delta);
+            adjust.bindLong(2, itemId);
+            adjust.bindLong(3, delta);
+            if (adjust.executeUpdateDelete() > 0) {
+                quantity = (int) DatabaseUtils.longForQuery(db,
+                        "SELECT " + COLUMN_QUANTITY + " FROM " + TABLE_STOCK_ITEMS + " WHERE " + COLUMN_ID + " = ?",
+                        new String[]{String.valueOf(itemId)});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        if (quantity != -1) {
+            notifyTablesChanged(STOCK_WRITE_TABLES);
+        }
+        TIMER_ADJUST_STOCK.stop(start, quantity != -1 ? 1 : 0);
+        return quantity;
+    }
+
+    /**
+     * Stock items after {@code anchor} by (name, _id), or the first page when
+     * anchor is null. With lowStockOnly the page comes from idx_stock_low.
+     */
+    public List<StockItem> getStockItemsAfter(boolean lowStockOnly, StockItem anchor, int limit) {
+        return queryStockPage(lowStockOnly, anchor, true, false, limit);
+    }
+
+    /** Stock items just before {@code anchor}, in list order. */
+    public List<StockItem> getStockItemsBefore(boolean lowStockOnly, StockItem anchor, int limit) {
+        List<StockItem> items = queryStockPage(lowStockOnly, anchor, false, false, limit);
+        Collections.reverse(items);
+        return items;
+    }
+
+    /** Like getStockItemsAfter but starting at {@code anchor} itself. */
+    public List<StockItem> getStockItemsFrom(boolean lowStockOnly, StockItem anchor, int limit) {
+        return queryStockPage(lowStockOnly, anchor, true, true, limit);
+    }
+
+    private List<StockItem> queryStockPage(boolean lowStockOnly, StockItem anchor,
+                                           boolean forward, boolean inclusive, int limit) {
+        long start = Diagnostics.start();
+        StringBuilder selection = new StringBuilder();
+        List<String> args = new ArrayList<>();
+        if (lowStockOnly) {
+            // Must match the index's WHERE clause for SQLite to use it
+            appendAnd(selection, LOW_STOCK);
+        }
+        if (anchor != null) {
+            String op = forward ? ">" : "<";
+            String key = COLUMN_NAME + " COLLATE NOCASE";
+            appendAnd(selection, key + " " + op + "= ? AND (" + key + " " + op + " ? OR " +
+                    COLUMN_ID + " " + op + (inclusive ? "=" : "") + " ?)");
+            args.add(anchor.getName());
+            args.add(anchor.getName());
+            args.add(String.valueOf(anchor.getId()));
+        }
+        String direction = forward ? " ASC" : " DESC";
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery(
-            "SELECT SUM(" + COLUMN_PRICE + ") FROM " + TABLE_PETS + 
-            " WHERE " + COLUMN_AVAILABLE + " = 0", null);
-        double revenue = 0.0;
-        if (cursor.moveToFirst() && !cursor.isNull(0)) {
-            revenue = cursor.getDouble(0);
+        Cursor cursor = db.query(TABLE_STOCK_ITEMS, STOCK_COLUMNS,
+                selection.length() > 0 ? selection.toString() : null,
+                args.toArray(new String[0]), null, null,
+                COLUMN_NAME + " COLLATE NOCASE" + direction + ", " + COLUMN_ID + direction,
+                String.valueOf(limit));
+        List<StockItem> items = new ArrayList<>(cursor.getCount());
+        while (cursor.moveToNext()) {
+            items.add(new StockItem(cursor.getLong(0), cursor.getString(1), cursor.getString(2),
+                    cursor.getInt(3), cursor.getInt(4)));
         }
         cursor.close();
-        return revenue;
+        TIMER_STOCK_PAGE.stop(start, items.size());
+        return items;
     }
 
-    public double getCurrentMonthRevenue() {
+    /** Items at or below their reorder level, counted from idx_stock_low alone. */
+    public int getLowStockCount() {
+        long start = Diagnostics.start();
         SQLiteDatabase db = this.getReadableDatabase();
-        // Assuming we want to track monthly sales, we'd need a sale_date column
-        // For now, returning total revenue
-        return getTotalRevenue();
+        int count = (int) DatabaseUtils.longForQuery(db,
+                "SELECT COUNT(*) FROM " + TABLE_STOCK_ITEMS + " WHERE " + LOW_STOCK, null);
+        TIMER_LOW_STOCK_COUNT.stop(start, 1);
+        return count;
     }
 
-    public int getSoldPetsCount() {
+    /**
+     * Consumes the stock change log and returns the items that crossed into
+     * low stock since the last call and are still low, by name. An item that
+     * dipped and recovered in between is left out. Only the logged
+     * transitions are read, never the whole stock table.
+     */
+    public List<StockItem> takeNewLowStockItems() {
+        long start = Diagnostics.start();
+        SQLiteDatabase db = this.getWritableDatabase();
+        List<StockItem> items = new ArrayList<>();
+        db.beginTransaction();
+        try {
+            long lastChange = DatabaseUtils.longForQuery(db,
+                    "SELECT IFNULL(MAX(" + COLUMN_ID + "), 0) FROM " + TABLE_STOCK_CHANGES, null);
+            if (lastChange == 0) {
+                db.setTransactionSuccessful();
+                TIMER_TAKE_LOW_STOCK.stop(start);
+                return items;
+            }
+            // With MIN(), SQLite takes was_low from each item's first logged change
+            Cursor cursor = db.rawQuery("SELECT s." + COLUMN_ID + ", s." + COLUMN_SKU + ", s." + COLUMN_NAME +
+                    ", s." + COLUMN_QUANTITY + ", s." + COLUMN_REORDER_LEVEL +
+                    " FROM (SELECT " + COLUMN_ITEM_ID + ", " + COLUMN_WAS_LOW + ", MIN(" + COLUMN_ID + ")" +
+                    " FROM " + TABLE_STOCK_CHANGES + " WHERE " + COLUMN_ID + " <= ? GROUP BY " + COLUMN_ITEM_ID + ") c" +
+                    " JOIN " + TABLE_STOCK_ITEMS + " s ON s." + COLUMN_ID + " = c." + COLUMN_ITEM_ID +
+                    " WHERE c." + COLUMN_WAS_LOW + " = 0 AND " + PetSchema.lowStock("s") +
+                    " ORDER BY s." + COLUMN_NAME + " COLLATE NOCASE",
+                    new String[]{String.valueOf(lastChange)});
+            while (cursor.moveToNext()) {
+                items.add(new StockItem(cursor.getLong(0), cursor.getString(1), cursor.getString(2),
+                        cursor.getInt(3), cursor.getInt(4)));
+            }
+            cursor.close();
+            db.delete(TABLE_STOCK_CHANGES, COLUMN_ID + " <= ?", new String[]{String.valueOf(lastChange)});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        TIMER_TAKE_LOW_STOCK.stop(start, items.size());
+        return items;
+    }
+
+    /**
+     * The newest {@code limit} activity entries, newest first. A backwards
+     * walk of the rowid B-tree that stops after limit rows, so it costs the
+     * same however long the log has been running.
+     */
+    public List<ActivityEntry> getRecentActivity(int limit) {
+        long start = Diagnostics.start();
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery(
-            "SELECT COUNT(*) FROM " + TABLE_PETS + 
-            " WHERE " + COLUMN_AVAILABLE + " = 0", null);
-        int count = 0;
-        if (cursor.moveToFirst()) {
-            count = cursor.getInt(0);
+        Cursor cursor = db.query(TABLE_ACTIVITY_LOG, ACTIVITY_COLUMNS, null, null, null, null,
+                COLUMN_ID + " DESC", String.valueOf(limit));
+        List<ActivityEntry> entries = new ArrayList<>(cursor.getCount());
+        while (cursor.moveToNext()) {
+            entries.add(new ActivityEntry(cursor.getLong(0), cursor.getString(1), cursor.getString(2),
+                    cursor.getLong(3), cursor.getLong(4)));
         }
         cursor.close();
-        return count;
+        TIMER_RECENT_ACTIVITY.stop(start, entries.size());
+        return entries;
     }
 
+    @Override
     public void clearAllData() {
+        long start = Diagnostics.start();
         SQLiteDatabase db = this.getWritableDatabase();
-        db.delete(TABLE_PETS, null, null);
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_PETS, null, null);
+            // Sales outlive their pets, so the ledger and its rollups go explicitly
+            db.delete(TABLE_SALES, null, null);
+            db.delete(TABLE_SALES_DAILY, null, null);
+            db.delete(TABLE_SALES_MONTHLY, null, null);
+            db.delete(TABLE_STOCK_ITEMS, null, null);
+            db.delete(TABLE_STOCK_CHANGES, null, null);
+            // After pets, so the per-row delete entries go too
+            db.delete(TABLE_ACTIVITY_LOG, null, null);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        dropCatalog();
+        TIMER_CLEAR_ALL.stop(start);
+        notifyTablesChanged(PET_WRITE_TABLES);
+        notifyTablesChanged(STOCK_WRITE_TABLES);
     }
 }
@@ -0,0 +1,141 @@
+package com.example.petmanagement;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histograms for the hot paths, shown under Settings. A probe is
+ * {@code long start = Diagnostics.start(); ... TIMER.stop(start, rows);}.
+ * Recording only touches preallocated atomics, so it never allocates.
+ * With ENABLED false every probe is a constant branch the JIT drops.
+ */
+public final class Diagnostics {
+    // Flip to false to build without any timing
+    public static final boolean ENABLED = true;
+
+    private static final List<Timer> timers = new CopyOnWriteArrayList<>();
+
+    private Diagnostics() {
+    }
+
+    /** A new timer, listed on the diagnostics page in creation order. */
+    public static Timer timer(String name) {
+        Timer timer = new Timer(name);
+        if (ENABLED) {
+            timers.add(timer);
+        }
+        return timer;
+    }
+
+    public static List<Timer> getTimers() {
+        return Collections.unmodifiableList(timers);
+    }
+
+    public static void resetAll() {
+        for (Timer timer : timers) {
+            timer.reset();
+        }
+    }
+
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Log-linear histogram of durations in nanoseconds: 8 buckets per power
+     * of two, so a percentile is within 12.5% of the true value. Anything
+     * over 2^40 ns (about 18 minutes) lands in the last bucket.
+     */
+    public static final class Timer {
+        private static final int SUB_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private static final int MAX_EXPONENT = 40;
+        private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+        private final String name;
+        private final AtomicLongArray buckets;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+
+        private Timer(String name) {
+            this.name = name;
+            this.buckets = new AtomicLongArray(ENABLED ? BUCKET_COUNT : 0);
+        }
+
+        public void stop(long startNanos) {
+            stop(startNanos, 0);
+        }
+
+        /** Records the time since startNanos, and rowCount rows read or written in it. */
+        public void stop(long startNanos, int rowCount) {
+            if (!ENABLED) return;
+            long nanos = System.nanoTime() - startNanos;
+            buckets.incrementAndGet(bucketOf(nanos));
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            rows.addAndGet(rowCount);
+        }
+
+        public String getName() { return name; }
+        public long getCount() { return count.get(); }
+        public long getMaxNanos() { return maxNanos.get(); }
+
+        public long getMeanNanos() {
+            long n = count.get();
+            return n > 0 ? totalNanos.get() / n : 0;
+        }
+
+        public double getMeanRows() {
+            long n = count.get();
+            return n > 0 ? (double) rows.get() / n : 0;
+        }
+
+        /** Upper edge of the bucket holding the given percentile (0-100), or 0 with no samples. */
+        public long getPercentileNanos(double percentile) {
+            long total = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                total += buckets.get(i);
+            }
+            if (total == 0) return 0;
+            long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    return i == buckets.length() - 1 ? maxNanos.get() : lowerBound(i + 1) - 1;
+                }
+            }
+            return maxNanos.get();
+        }
+
+        public void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+            rows.set(0);
+        }
+
+        private static int bucketOf(long nanos) {
+            if (nanos < SUB_BUCKETS) return (int) Math.max(nanos, 0);
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            if (exponent > MAX_EXPONENT) return BUCKET_COUNT - 1;
+            int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        private static long lowerBound(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+            int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+            return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+        }
+    }
+}
@@ -9,17 +9,23 @@ import android.widget.Toast;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.button.MaterialButton;
+import java.text.DecimalFormatSymbols;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
-import com.example.petmanagement.utils.CurrencyFormatter;
 
 public class HomeFragment extends Fragment {
+    private static final int RECENT_ACTIVITY_LIMIT = 20;
+
     private TextView totalPetsCount;
     private TextView petsCountTrend;
     private TextView lastUpdateTime;
     private RecyclerView recentActivityList;
+    private ActivityAdapter activityAdapter;
     // Add new view references
     private TextView stockCount;
     private TextView stockStatus;
@@ -27,16 +33,40 @@ public class HomeFragment extends Fragment {
     private TextView revenueTrend;
     private TextView lowStockCount;
     private DatabaseHelper dbHelper;
+    private PetRepository repository;
+    // Reused for the trend lines, which change on every dashboard refresh
+    private final StringBuilder trendText = new StringBuilder();
+    private char decimalSeparator;
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         View view = inflater.inflate(R.layout.fragment_home, container, false);
-        dbHelper = new DatabaseHelper(requireContext());
+        dbHelper = DatabaseHelper.getInstance(requireContext());
+        decimalSeparator = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+        repository = new PetRepository(dbHelper);
         initializeViews(view);
         setupDashboard();
         return view;
     }
 
+    // Hidden tabs stay alive; catch up on changes once when shown again
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        if (repository == null) return;
+        if (hidden) {
+            repository.pauseObservers();
+        } else {
+            repository.resumeObservers();
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        repository.cancelAll();
+    }
+
     private void initializeViews(View view) {
         totalPetsCount = view.findViewById(R.id.totalPetsCount);
         petsCountTrend = view.findViewById(R.id.petsCountTrend);
@@ -52,14 +82,15 @@ public class HomeFragment extends Fragment {
         monthlyRevenue = view.findViewById(R.id.monthlyRevenue);
         revenueTrend = view.findViewById(R.id.revenueTrend);
         lowStockCount = view.findViewById(R.id.lowStockCount);
+
+        // The stock card leads to the supplies inventory
+        View.OnClickListener openInventory = v -> ((MainActivity) requireActivity()).openInventory();
+        stockCount.setOnClickListener(openInventory);
+        stockStatus.setOnClickListener(openInventory);
     }
 
     private void setupDashboard() {
-        // Update last refresh time
-        SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy HH:mm", Locale.getDefault());
-        lastUpdateTime.setText("Last updated: " + sdf.format(new Date()));
-
-        // Update metrics
+        // Update metrics now and after every change to the tables they come from
         updateMetrics();
 
         // Setup recent activity
@@ -67,53 +98,98 @@ public class HomeFragment extends Fragment {
     }
 
     private void updateMetrics() {
-        try {
-            // Total Pets
-            int totalPets = dbHelper.getTotalPetsCount();
-            int availablePets = dbHelper.getAvailablePetsCount();
-            int soldPets = dbHelper.getSoldPetsCount();
-            double totalRevenue = dbHelper.getTotalRevenue();
-            
-            // Update UI
-            totalPetsCount.setText(String.valueOf(totalPets));
-            
-            // Calculate percentage change (example: based on sold vs available)
-            float percentChange = totalPets > 0 ? 
-                    (float) soldPets / totalPets * 100 : 0;
-            petsCountTrend.setText(String.format("%.1f%% sold", percentChange));
-            
-            // Stock count (available pets)
-            stockCount.setText(String.valueOf(availablePets));
-            stockStatus.setText("Pets available");
-            
-            // Revenue
-            monthlyRevenue.setText(CurrencyFormatter.formatFCFA(totalRevenue));
-            
-            // Revenue trend (example calculation)
-            double averagePrice = totalPets > 0 ? totalRevenue / soldPets : 0;
-            revenueTrend.setText("Avg. " + CurrencyFormatter.formatFCFA(averagePrice) + " per pet");
-            
-            // Low stock alert (if available pets are less than 5)
-            int lowStockAlert = availablePets < 5 ? availablePets : 0;
-            lowStockCount.setText(String.valueOf(lowStockAlert));
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(getContext(), 
-                "Error updating metrics: " + e.getMessage(), 
-                Toast.LENGTH_SHORT).show();
+        repository.observe(dbHelper::getDashboardStats, new PetRepository.Callback<DashboardStats>() {
+            @Override
+            public void onResult(DashboardStats stats) {
+                showMetrics(stats);
+                SimpleDateFormat sdf = new SimpleDateFormat("MMM dd, yyyy HH:mm", Locale.getDefault());
+                lastUpdateTime.setText("Last updated: " + sdf.format(new Date()));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                Toast.makeText(getContext(),
+                    "Error updating metrics: " + e.getMessage(),
+                    Toast.LENGTH_SHORT).show();
+            }
+        }, DatabaseHelper.TABLE_PET_STATS, DatabaseHelper.TABLE_SALES_MONTHLY, DatabaseHelper.TABLE_STOCK_ITEMS);
+    }
+
+    private void showMetrics(DashboardStats stats) {
+        int totalPets = stats.getTotalPets();
+        int soldPets = stats.getSoldPets();
+
+        // Update UI
+        totalPetsCount.setText(String.valueOf(totalPets));
+
+        // Calculate percentage change (example: based on sold vs available)
+        float percentChange = totalPets > 0 ?
+                (float) soldPets / totalPets * 100 : 0;
+        trendText.setLength(0);
+        appendPercent(trendText, percentChange, false).append(" sold");
+        petsCountTrend.setText(trendText);
+
+        // Stock card: supplies at or below their reorder level, as in the inventory it opens
+        stockCount.setText(String.valueOf(stats.getLowStockItems()));
+        stockStatus.setText("Supplies low on stock");
+
+        // Revenue, from this month's sales bucket
+        long currentMonth = stats.getCurrentMonthRevenue();
+        long previousMonth = stats.getPreviousMonthRevenue();
+        monthlyRevenue.setText(Money.format(currentMonth));
+
+        // Revenue trend against last month's bucket
+        if (previousMonth > 0) {
+            double change = (double) (currentMonth - previousMonth) / previousMonth * 100;
+            trendText.setLength(0);
+            appendPercent(trendText, change, true).append(" vs last month");
+            revenueTrend.setText(trendText);
+        } else {
+            revenueTrend.setText("No sales last month");
         }
+
+        // Supplies at or below their reorder level
+        lowStockCount.setText(String.valueOf(stats.getLowStockItems()));
+    }
+
+    // Same text as "%.1f%%" (or "%+.1f%%" when signed) without a Formatter
+    private StringBuilder appendPercent(StringBuilder text, double percent, boolean signed) {
+        long tenths = Math.round(Math.abs(percent) * 10);
+        if (percent < 0) {
+            text.append('-');
+        } else if (signed) {
+            text.append('+');
+        }
+        return text.append(tenths / 10).append(decimalSeparator).append(tenths % 10).append('%');
     }
 
     private void setupRecentActivity() {
         recentActivityList.setLayoutManager(new LinearLayoutManager(getContext()));
-        // TODO: Set up RecyclerView adapter with actual data
+        activityAdapter = new ActivityAdapter(new ArrayList<>());
+        recentActivityList.setAdapter(activityAdapter);
+
+        // Only the newest entries are read, so this stays cheap however old the log is
+        repository.observe(() -> dbHelper.getRecentActivity(RECENT_ACTIVITY_LIMIT),
+                new PetRepository.Callback<List<ActivityEntry>>() {
+            @Override
+            public void onResult(List<ActivityEntry> entries) {
+                activityAdapter.updateList(entries);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                Toast.makeText(getContext(),
+                    "Error loading recent activity: " + e.getMessage(),
+                    Toast.LENGTH_SHORT).show();
+            }
+        }, DatabaseHelper.TABLE_ACTIVITY_LOG);
     }
 
     private void navigateToPets() {
-        getActivity().getSupportFragmentManager().beginTransaction()
-            .replace(R.id.fragment_container, new PetsFragment())
-            .addToBackStack(null)
-            .commit();
+        // Go through the bottom navigation so the retained Pets tab is reused
+        BottomNavigationView bottomNav = requireActivity().findViewById(R.id.bottom_navigation);
+        bottomNav.setSelectedItemId(R.id.navigation_pets);
     }
 }
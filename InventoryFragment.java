@@ -1,14 +1,265 @@
 package com.example.petmanagement;
 
 import android.os.Bundle;
+import android.text.InputType;
+import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.Toast;
+import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.google.android.material.chip.Chip;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
+import com.google.android.material.floatingactionbutton.FloatingActionButton;
+import com.google.android.material.textfield.TextInputEditText;
+import java.util.ArrayList;
 
+/**
+ * Supplies counted by quantity. Uses the same keyset paging and diffed
+ * adapter as the pets list, and refreshes in place whenever stock changes.
+ */
 public class InventoryFragment extends Fragment {
+    private RecyclerView stockRecyclerView;
+    private Chip lowStockChip;
+    private StockAdapter stockAdapter;
+    private StockPager stockPager;
+    private PetRepository repository;
+
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
-        return inflater.inflate(R.layout.fragment_inventory, container, false);
+        repository = new PetRepository(DatabaseHelper.getInstance(requireContext()));
+        View view = createViews();
+        setupRecyclerView();
+        lowStockChip.setOnCheckedChangeListener((chip, checked) -> stockPager.reload(checked));
+        return view;
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (stockPager != null) {
+            stockPager.detach();
+        }
+        if (repository != null) {
+            repository.cancelAll();
+        }
+    }
+
+    // fragment_inventory is an empty layout, so the screen is built here
+    private View createViews() {
+        int padding = dp(16);
+        FrameLayout root = new FrameLayout(requireContext());
+
+        LinearLayout content = new LinearLayout(requireContext());
+        content.setOrientation(LinearLayout.VERTICAL);
+        root.addView(content, new FrameLayout.LayoutParams(
+            ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+        lowStockChip = new Chip(requireContext());
+        lowStockChip.setText("Low stock only");
+        lowStockChip.setCheckable(true);
+        LinearLayout.LayoutParams chipParams = new LinearLayout.LayoutParams(
+            ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+        chipParams.setMargins(padding, padding / 2, padding, 0);
+        content.addView(lowStockChip, chipParams);
+
+        stockRecyclerView = new RecyclerView(requireContext());
+        content.addView(stockRecyclerView, new LinearLayout.LayoutParams(
+            ViewGroup.LayoutParams.MATCH_PARENT, 0, 1f));
+
+        FloatingActionButton addButton = new FloatingActionButton(requireContext());
+        addButton.setImageResource(android.R.drawable.ic_input_add);
+        addButton.setOnClickListener(v -> showStockItemDialog(null));
+        FrameLayout.LayoutParams fabParams = new FrameLayout.LayoutParams(
+            ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+            Gravity.BOTTOM | Gravity.END);
+        fabParams.setMargins(padding, padding, padding, padding);
+        root.addView(addButton, fabParams);
+        return root;
+    }
+
+    private void setupRecyclerView() {
+        stockRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        stockAdapter = new StockAdapter(new ArrayList<>(), new StockAdapter.StockClickListener() {
+            @Override
+            public void onStockClick(StockItem item) {
+                showAdjustDialog(item);
+            }
+
+            @Override
+            public void onStockLongClick(StockItem item) {
+                showItemOptions(item);
+            }
+        });
+        stockRecyclerView.setAdapter(stockAdapter);
+
+        stockPager = new StockPager(repository, stockAdapter);
+        stockPager.attach(stockRecyclerView);
+        stockPager.reload(false);
+
+        repository.observeTables(stockPager::refresh, DatabaseHelper.TABLE_STOCK_ITEMS);
+    }
+
+    private void showAdjustDialog(StockItem item) {
+        TextInputEditText amountInput = new TextInputEditText(requireContext());
+        amountInput.setInputType(InputType.TYPE_CLASS_NUMBER);
+        amountInput.setHint("Quantity");
+
+        new MaterialAlertDialogBuilder(requireContext())
+            .setTitle(item.getName() + " (" + item.getQuantity() + " on hand)")
+            .setView(wrap(amountInput))
+            .setPositiveButton("Receive", (dialog, which) -> adjust(item, readAmount(amountInput)))
+            .setNeutralButton("Remove", (dialog, which) -> adjust(item, -readAmount(amountInput)))
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
+    private void adjust(StockItem item, int delta) {
+        if (delta == 0) {
+            Toast.makeText(getContext(), "Enter a quantity", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        repository.adjustStockQuantity(item.getId(), delta, new PetRepository.Callback<Integer>() {
+            @Override
+            public void onResult(Integer quantity) {
+                if (quantity < 0) {
+                    Toast.makeText(getContext(), "Not enough stock", Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                Toast.makeText(getContext(), "Error updating stock: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void showItemOptions(StockItem item) {
+        String[] options = {"Edit", "Delete"};
+        new MaterialAlertDialogBuilder(requireContext())
+            .setTitle(item.getName())
+            .setItems(options, (dialog, which) -> {
+                if (which == 0) {
+                    showStockItemDialog(item);
+                } else {
+                    deleteStockItem(item);
+                }
+            })
+            .show();
+    }
+
+    // Adds a new item when item is null; otherwise edits it. Quantity only
+    // changes through Receive/Remove, so it is fixed while editing.
+    private void showStockItemDialog(StockItem item) {
+        TextInputEditText skuInput = new TextInputEditText(requireContext());
+        skuInput.setHint("SKU");
+        TextInputEditText nameInput = new TextInputEditText(requireContext());
+        nameInput.setHint("Name");
+        TextInputEditText quantityInput = new TextInputEditText(requireContext());
+        quantityInput.setHint("Quantity on hand");
+        quantityInput.setInputType(InputType.TYPE_CLASS_NUMBER);
+        TextInputEditText reorderInput = new TextInputEditText(requireContext());
+        reorderInput.setHint("Reorder level");
+        reorderInput.setInputType(InputType.TYPE_CLASS_NUMBER);
+
+        if (item != null) {
+            skuInput.setText(item.getSku());
+            nameInput.setText(item.getName());
+            quantityInput.setText(String.valueOf(item.getQuantity()));
+            quantityInput.setEnabled(false);
+            reorderInput.setText(String.valueOf(item.getReorderLevel()));
+        }
+
+        AlertDialog dialog = new MaterialAlertDialogBuilder(requireContext())
+            .setTitle(item == null ? "Add Stock Item" : "Edit Stock Item")
+            .setView(wrap(skuInput, nameInput, quantityInput, reorderInput))
+            .setPositiveButton("Save", null)
+            .setNegativeButton("Cancel", null)
+            .create();
+
+        dialog.setOnShowListener(dialogInterface -> {
+            Button positiveButton = dialog.getButton(AlertDialog.BUTTON_POSITIVE);
+            positiveButton.setOnClickListener(view -> {
+                String sku = skuInput.getText().toString().trim();
+                String name = nameInput.getText().toString().trim();
+                if (sku.isEmpty() || name.isEmpty()) {
+                    Toast.makeText(getContext(), "Please fill in SKU and name", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                int quantity = readAmount(quantityInput);
+                int reorderLevel = readAmount(reorderInput);
+                PetRepository.Callback<Boolean> saved = new PetRepository.Callback<Boolean>() {
+                    @Override
+                    public void onResult(Boolean success) {
+                        if (success) {
+                            dialog.dismiss();
+                        } else {
+                            Toast.makeText(getContext(), "That SKU is already in use", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        e.printStackTrace();
+                        Toast.makeText(getContext(), "Error saving item: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    }
+                };
+                DatabaseHelper dbHelper = DatabaseHelper.getInstance(requireContext());
+                if (item == null) {
+                    repository.executeWrite(() ->
+                        dbHelper.insertStockItem(sku, name, quantity, reorderLevel) != -1, saved);
+                } else {
+                    StockItem edited = new StockItem(item.getId(), sku, name, item.getQuantity(), reorderLevel);
+                    repository.executeWrite(() -> dbHelper.updateStockItem(edited) > 0, saved);
+                }
+            });
+        });
+
+        dialog.show();
+    }
+
+    private void deleteStockItem(StockItem item) {
+        new MaterialAlertDialogBuilder(requireContext())
+            .setTitle("Delete Stock Item")
+            .setMessage("Are you sure you want to delete " + item.getName() + "?")
+            .setPositiveButton("Delete", (dialog, which) ->
+                repository.deleteStockItem(item.getId(), result -> {
+                    if (result > 0) {
+                        Toast.makeText(getContext(), "Item deleted", Toast.LENGTH_SHORT).show();
+                    }
+                }))
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
+    // Blank or unreadable input counts as zero
+    private static int readAmount(TextInputEditText input) {
+        try {
+            return Integer.parseInt(input.getText().toString().trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private View wrap(View... fields) {
+        LinearLayout layout = new LinearLayout(requireContext());
+        layout.setOrientation(LinearLayout.VERTICAL);
+        int padding = dp(20);
+        layout.setPadding(padding, padding / 2, padding, 0);
+        for (View field : fields) {
+            layout.addView(field);
+        }
+        return layout;
+    }
+
+    private int dp(int value) {
+        return Math.round(value * getResources().getDisplayMetrics().density);
     }
 }
@@ -0,0 +1,224 @@
+package com.example.petmanagement;
+
+import android.widget.Toast;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Feeds a WindowedAdapter one keyset page at a time as the list scrolls. Only
+ * the last MAX_PAGES pages stay loaded: scrolling down drops pages off the
+ * top, scrolling back up reloads them and drops pages off the bottom.
+ * Subclasses fetch the pages, each relative to an anchor row.
+ */
+public abstract class KeysetPager<T> {
+    static final int PAGE_SIZE = DatabaseHelper.PAGE_SIZE;
+    private static final int MAX_PAGES = 5;
+    // Start loading when the user is this many rows from either edge
+    private static final int PREFETCH_DISTANCE = 15;
+
+    private final WindowedAdapter<T, ?> adapter;
+    // Plural noun for error messages, e.g. "pets"
+    private final String itemsLabel;
+    // Size of each loaded page, top of the list first
+    private final ArrayDeque<Integer> pageSizes = new ArrayDeque<>();
+
+    private RecyclerView recyclerView;
+    private boolean enabled = true;
+    private boolean loading;
+    private boolean reachedStart = true;
+    private boolean reachedEnd;
+    private long generation;
+
+    private final RecyclerView.OnScrollListener scrollListener = new RecyclerView.OnScrollListener() {
+        @Override
+        public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+            checkEdges();
+        }
+    };
+
+    protected KeysetPager(WindowedAdapter<T, ?> adapter, String itemsLabel) {
+        this.adapter = adapter;
+        this.itemsLabel = itemsLabel;
+    }
+
+    /** Up to limit rows after anchor, or the first page when anchor is null. */
+    protected abstract PetRepository.Task loadAfter(T anchor, int limit, PetRepository.Callback<List<T>> callback);
+
+    /** Up to limit rows just before anchor, in list order. */
+    protected abstract PetRepository.Task loadBefore(T anchor, int limit, PetRepository.Callback<List<T>> callback);
+
+    /** Like loadAfter but including anchor itself, or where it would sort if it is gone. */
+    protected abstract PetRepository.Task loadFrom(T anchor, int limit, PetRepository.Callback<List<T>> callback);
+
+    public void attach(RecyclerView recyclerView) {
+        this.recyclerView = recyclerView;
+        recyclerView.addOnScrollListener(scrollListener);
+    }
+
+    public void detach() {
+        if (recyclerView != null) {
+            recyclerView.removeOnScrollListener(scrollListener);
+            recyclerView = null;
+        }
+        generation++;
+    }
+
+    /** Stops paging while the adapter is showing something else, e.g. search results. */
+    public void disable() {
+        enabled = false;
+        generation++;
+        loading = false;
+    }
+
+    /** Throws the window away and loads the first page again. */
+    public void reload() {
+        enabled = true;
+        final long requestGeneration = ++generation;
+        loading = true;
+        loadAfter(null, PAGE_SIZE, new PetRepository.Callback<List<T>>() {
+            @Override
+            public void onResult(List<T> page) {
+                if (requestGeneration != generation) return;
+                pageSizes.clear();
+                pageSizes.addLast(page.size());
+                reachedStart = true;
+                reachedEnd = page.size() < PAGE_SIZE;
+                loading = false;
+                adapter.updateList(page);
+                scheduleEdgeCheck();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                onLoadFailed(requestGeneration, e);
+            }
+        });
+    }
+
+    /**
+     * Re-reads the rows currently loaded, starting from the first one, so a
+     * change elsewhere shows up without losing the scroll position.
+     */
+    public void refresh() {
+        if (!enabled) return;
+        if (adapter.getLoadedCount() == 0) {
+            reload();
+            return;
+        }
+        final T anchor = reachedStart ? null : adapter.getFirstLoaded();
+        final int limit = Math.max(adapter.getLoadedCount(), PAGE_SIZE);
+        final long requestGeneration = ++generation;
+        loading = true;
+        loadFrom(anchor, limit, new PetRepository.Callback<List<T>>() {
+            @Override
+            public void onResult(List<T> rows) {
+                if (requestGeneration != generation) return;
+                // Keep the window in PAGE_SIZE pages so trimming still drops whole pages
+                pageSizes.clear();
+                for (int remaining = rows.size(); remaining > 0; remaining -= PAGE_SIZE) {
+                    pageSizes.addLast(Math.min(remaining, PAGE_SIZE));
+                }
+                if (pageSizes.isEmpty()) {
+                    pageSizes.addLast(0);
+                }
+                reachedEnd = rows.size() < limit;
+                loading = false;
+                adapter.updateList(rows);
+                scheduleEdgeCheck();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                onLoadFailed(requestGeneration, e);
+            }
+        });
+    }
+
+    private void checkEdges() {
+        if (!enabled || loading || recyclerView == null) return;
+        if (!(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) return;
+
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int itemCount = adapter.getItemCount();
+        if (itemCount == 0 || adapter.getLoadedCount() == 0) return;
+
+        if (!reachedEnd && layoutManager.findLastVisibleItemPosition() >= itemCount - PREFETCH_DISTANCE) {
+            loadNext(adapter.getLastLoaded());
+        } else if (!reachedStart && layoutManager.findFirstVisibleItemPosition() <= PREFETCH_DISTANCE) {
+            loadPrevious(adapter.getFirstLoaded());
+        }
+    }
+
+    private void loadNext(T anchor) {
+        final long requestGeneration = ++generation;
+        loading = true;
+        loadAfter(anchor, PAGE_SIZE, new PetRepository.Callback<List<T>>() {
+            @Override
+            public void onResult(List<T> page) {
+                if (requestGeneration != generation) return;
+                loading = false;
+                reachedEnd = page.size() < PAGE_SIZE;
+                if (page.isEmpty()) return;
+
+                adapter.appendItems(page);
+                pageSizes.addLast(page.size());
+                if (pageSizes.size() > MAX_PAGES) {
+                    adapter.trimStart(pageSizes.removeFirst());
+                    reachedStart = false;
+                }
+                scheduleEdgeCheck();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                onLoadFailed(requestGeneration, e);
+            }
+        });
+    }
+
+    private void loadPrevious(T anchor) {
+        final long requestGeneration = ++generation;
+        loading = true;
+        loadBefore(anchor, PAGE_SIZE, new PetRepository.Callback<List<T>>() {
+            @Override
+            public void onResult(List<T> page) {
+                if (requestGeneration != generation) return;
+                loading = false;
+                reachedStart = page.size() < PAGE_SIZE;
+                if (page.isEmpty()) return;
+
+                adapter.prependItems(page);
+                pageSizes.addFirst(page.size());
+                if (pageSizes.size() > MAX_PAGES) {
+                    adapter.trimEnd(pageSizes.removeLast());
+                    reachedEnd = false;
+                }
+                scheduleEdgeCheck();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                onLoadFailed(requestGeneration, e);
+            }
+        });
+    }
+
+    // A short page may leave the user at an edge without another scroll event
+    private void scheduleEdgeCheck() {
+        if (recyclerView != null) {
+            recyclerView.post(this::checkEdges);
+        }
+    }
+
+    private void onLoadFailed(long requestGeneration, Exception e) {
+        if (requestGeneration != generation) return;
+        loading = false;
+        e.printStackTrace();
+        if (recyclerView != null) {
+            Toast.makeText(recyclerView.getContext(), "Error loading " + itemsLabel + ": " + e.getMessage(),
+                Toast.LENGTH_LONG).show();
+        }
+    }
+}
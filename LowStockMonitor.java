@@ -0,0 +1,128 @@
+package com.example.petmanagement;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.preference.PreferenceManager;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Turns the stock change log into low-stock notifications. It runs a few
+ * seconds after stock changes and only reads the logged transitions, so a
+ * burst of writes (e.g. an import) ends in one notification listing
+ * everything that went low. Honours the "notifications" preference; changes
+ * made while it is off are consumed silently.
+ */
+public final class LowStockMonitor implements DatabaseHelper.TableObserver {
+    public static final String PREF_NOTIFICATIONS = "notifications";
+
+    private static final String CHANNEL_ID = "low_stock";
+    // One id for every alert, so a newer alert replaces the one still showing
+    private static final int NOTIFICATION_ID = 1001;
+    private static final long COALESCE_DELAY_MS = 5000;
+    private static final int MAX_LISTED_ITEMS = 5;
+
+    private static LowStockMonitor instance;
+
+    private final Context context;
+    private final DatabaseHelper dbHelper;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "low-stock-monitor"));
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private LowStockMonitor(Context context) {
+        this.context = context;
+        this.dbHelper = DatabaseHelper.getInstance(context);
+    }
+
+    /** Starts watching stock for the rest of the process; later calls do nothing. */
+    public static synchronized void start(Context context) {
+        if (instance != null) return;
+        instance = new LowStockMonitor(context.getApplicationContext());
+        instance.dbHelper.addTableObserver(instance);
+        // Catch up with anything logged while the app was not running
+        instance.schedule();
+    }
+
+    /** Removes a low-stock notification that is still showing. */
+    public static void dismiss(Context context) {
+        NotificationManagerCompat.from(context).cancel(NOTIFICATION_ID);
+    }
+
+    @Override
+    public void onTablesChanged(Set<String> tables) {
+        if (tables.contains(DatabaseHelper.TABLE_STOCK_CHANGES)) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.schedule(this::run, COALESCE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void run() {
+        // Cleared first so a change during this run schedules another one
+        scheduled.set(false);
+        try {
+            List<StockItem> items = dbHelper.takeNewLowStockItems();
+            if (!items.isEmpty() && isEnabled()) {
+                notifyLowStock(items);
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private boolean isEnabled() {
+        return PreferenceManager.getDefaultSharedPreferences(context).getBoolean(PREF_NOTIFICATIONS, true)
+                && NotificationManagerCompat.from(context).areNotificationsEnabled();
+    }
+
+    private void notifyLowStock(List<StockItem> items) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "Low stock",
+                    NotificationManager.IMPORTANCE_DEFAULT);
+            channel.setDescription("Supplies that reached their reorder level");
+            context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+        }
+
+        String title = items.size() == 1
+                ? items.get(0).getName() + " is low on stock"
+                : items.size() + " items are low on stock";
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle();
+        for (int i = 0; i < Math.min(items.size(), MAX_LISTED_ITEMS); i++) {
+            StockItem item = items.get(i);
+            style.addLine(item.getName() + ": " + item.getQuantity() + " left");
+        }
+        if (items.size() > MAX_LISTED_ITEMS) {
+            style.setSummaryText("+" + (items.size() - MAX_LISTED_ITEMS) + " more");
+        }
+
+        Intent intent = new Intent(context, MainActivity.class);
+        PendingIntent contentIntent = PendingIntent.getActivity(context, 0, intent,
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_baseline_pets_24)
+                .setContentTitle(title)
+                .setContentText(items.get(0).getName() + ": " + items.get(0).getQuantity() + " left")
+                .setStyle(style)
+                .setNumber(items.size())
+                .setContentIntent(contentIntent)
+                .setAutoCancel(true)
+                .setPriority(NotificationCompat.PRIORITY_DEFAULT);
+        NotificationManagerCompat.from(context).notify(NOTIFICATION_ID, builder.build());
+    }
+}
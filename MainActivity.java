@@ -3,39 +3,94 @@ package com.example.petmanagement;
 import android.os.Bundle;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 
 public class MainActivity extends AppCompatActivity {
+    private static final String TAG_HOME = "home";
+    private static final String TAG_PETS = "pets";
+    private static final String TAG_SETTINGS = "settings";
+    private static final String[] TAB_TAGS = {TAG_HOME, TAG_PETS, TAG_SETTINGS};
+    private static final String TAG_INVENTORY = "inventory";
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        LowStockMonitor.start(this);
 
         BottomNavigationView bottomNav = findViewById(R.id.bottom_navigation);
         bottomNav.setOnItemSelectedListener(item -> {
-            Fragment selectedFragment = null;
-            
             if (item.getItemId() == R.id.navigation_home) {
-                selectedFragment = new HomeFragment();
+                showTab(TAG_HOME);
             } else if (item.getItemId() == R.id.navigation_pets) {
-                selectedFragment = new PetsFragment();
+                showTab(TAG_PETS);
             } else if (item.getItemId() == R.id.navigation_settings) {
-                selectedFragment = new SettingsFragment();
-            }
-
-            if (selectedFragment != null) {
-                getSupportFragmentManager().beginTransaction()
-                    .replace(R.id.fragment_container, selectedFragment)
-                    .commit();
+                showTab(TAG_SETTINGS);
             }
             return true;
         });
+        // Tapping the current tab again should not touch its fragment
+        bottomNav.setOnItemReselectedListener(item -> { });
 
-        // Set default fragment
+        // Set default fragment; after a restart the fragment manager restores the tabs itself
         if (savedInstanceState == null) {
-            getSupportFragmentManager().beginTransaction()
-                .replace(R.id.fragment_container, new HomeFragment())
-                .commit();
+            showTab(TAG_HOME);
+        }
+    }
+
+    /**
+     * Shows the tab's fragment, creating it the first time, and hides the
+     * others. Hidden tabs keep their views and loaded data, so switching back
+     * does not inflate or query anything again.
+     */
+    private void showTab(String tag) {
+        FragmentManager fragmentManager = getSupportFragmentManager();
+        // Leaving for another tab closes the inventory screen if it is open
+        fragmentManager.popBackStackImmediate(TAG_INVENTORY, FragmentManager.POP_BACK_STACK_INCLUSIVE);
+        FragmentTransaction transaction = fragmentManager.beginTransaction();
+        transaction.setReorderingAllowed(true);
+        for (String other : TAB_TAGS) {
+            Fragment fragment = fragmentManager.findFragmentByTag(other);
+            if (fragment != null && !other.equals(tag) && !fragment.isHidden()) {
+                transaction.hide(fragment);
+            }
+        }
+        Fragment selected = fragmentManager.findFragmentByTag(tag);
+        if (selected == null) {
+            transaction.add(R.id.fragment_container, createTab(tag), tag);
+        } else {
+            transaction.show(selected);
+        }
+        transaction.commit();
+    }
+
+    /** Opens the inventory screen over the current tab; Back returns to the tab as it was. */
+    public void openInventory() {
+        FragmentManager fragmentManager = getSupportFragmentManager();
+        if (fragmentManager.findFragmentByTag(TAG_INVENTORY) != null) return;
+        FragmentTransaction transaction = fragmentManager.beginTransaction();
+        transaction.setReorderingAllowed(true);
+        for (String tag : TAB_TAGS) {
+            Fragment fragment = fragmentManager.findFragmentByTag(tag);
+            if (fragment != null && !fragment.isHidden()) {
+                transaction.hide(fragment);
+            }
+        }
+        transaction.add(R.id.fragment_container, new InventoryFragment(), TAG_INVENTORY)
+            .addToBackStack(TAG_INVENTORY)
+            .commit();
+    }
+
+    private static Fragment createTab(String tag) {
+        switch (tag) {
+            case TAG_PETS:
+                return new PetsFragment();
+            case TAG_SETTINGS:
+                return new SettingsFragment();
+            default:
+                return new HomeFragment();
         }
     }
 }
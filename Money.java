@@ -0,0 +1,135 @@
+package com.example.petmanagement;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Prices and revenue are longs counting minor units, hundredths of a franc,
+ * in memory and in the database alike. Sums and differences are exact; only
+ * parsing and display deal in francs.
+ */
+public final class Money {
+    public static final int MINOR_PER_MAJOR = 100;
+    private static final int SCALE = 2;
+    // Digits a long holds in full, as a bound on either side of the point
+    private static final int MAX_DIGITS = 18;
+    private static final String CURRENCY_SUFFIX = " FCFA";
+
+    // One formatter per thread, so formatting never takes a lock
+    private static final ThreadLocal<Formatter> FORMATTERS = new ThreadLocal<Formatter>() {
+        @Override
+        protected Formatter initialValue() {
+            return new Formatter();
+        }
+    };
+
+    private Money() {
+    }
+
+    /**
+     * Minor units for a typed amount such as "1500" or "1499.99"; extra
+     * decimals round half up. Throws NumberFormatException for text that
+     * isn't a number or has more digits either side of the point than a
+     * long can use, so an exponent like "1e999999999" fails fast.
+     */
+    public static long parse(String text) {
+        BigDecimal amount = new BigDecimal(text.trim());
+        if (amount.scale() > MAX_DIGITS || amount.precision() - amount.scale() > MAX_DIGITS) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /** Whole francs with only the decimals needed, e.g. "1500" or "1499.5", for editing and export. */
+    public static String toPlainString(long minor) {
+        if (minor % MINOR_PER_MAJOR == 0) {
+            return Long.toString(minor / MINOR_PER_MAJOR);
+        }
+        return BigDecimal.valueOf(minor, SCALE).stripTrailingZeros().toPlainString();
+    }
+
+    public static double toMajor(long minor) {
+        return minor / (double) MINOR_PER_MAJOR;
+    }
+
+    /**
+     * Display text such as "25,000 FCFA" or "1,499.50 FCFA", grouped for the
+     * default locale. Repeated prices come from a cache, so binding list rows
+     * allocates nothing once their prices have been seen.
+     */
+    public static String format(long minor) {
+        return FORMATTERS.get().format(minor);
+    }
+
+    /**
+     * Builds price text digit by digit into a reused buffer, and keeps the
+     * results in a small direct-mapped cache keyed by the amount itself, so
+     * lookups need no boxing and the cache can never grow.
+     */
+    private static final class Formatter {
+        private static final int CACHE_SIZE = 256;
+
+        private final long[] keys = new long[CACHE_SIZE];
+        private final String[] values = new String[CACHE_SIZE];
+        private final StringBuilder buffer = new StringBuilder(32);
+        private Locale locale;
+        private char groupingSeparator;
+        private char decimalSeparator;
+
+        String format(long minor) {
+            Locale current = Locale.getDefault();
+            if (current != locale) {
+                DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(current);
+                groupingSeparator = symbols.getGroupingSeparator();
+                decimalSeparator = symbols.getDecimalSeparator();
+                locale = current;
+                Arrays.fill(values, null);
+            }
+            int slot = slotOf(minor);
+            String cached = values[slot];
+            if (cached != null && keys[slot] == minor) {
+                return cached;
+            }
+            String text = build(minor);
+            keys[slot] = minor;
+            values[slot] = text;
+            return text;
+        }
+
+        private String build(long minor) {
+            buffer.setLength(0);
+            if (minor < 0) {
+                buffer.append('-');
+            }
+            long major = Math.abs(minor / MINOR_PER_MAJOR);
+            int fraction = (int) Math.abs(minor % MINOR_PER_MAJOR);
+            long divisor = 1;
+            int digits = 1;
+            while (major / divisor >= 10) {
+                divisor *= 10;
+                digits++;
+            }
+            for (; divisor > 0; divisor /= 10, digits--) {
+                buffer.append((char) ('0' + major / divisor % 10));
+                if (digits > 1 && digits % 3 == 1) {
+                    buffer.append(groupingSeparator);
+                }
+            }
+            if (fraction != 0) {
+                buffer.append(decimalSeparator)
+                        .append((char) ('0' + fraction / 10))
+                        .append((char) ('0' + fraction % 10));
+            }
+            return buffer.append(CURRENCY_SUFFIX).toString();
+        }
+
+        // Prices tend to be round numbers, so spread the high bits into the slot index
+        private static int slotOf(long minor) {
+            long h = minor * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 56) & (CACHE_SIZE - 1);
+        }
+    }
+}
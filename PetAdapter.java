@@ -5,37 +5,53 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.chip.Chip;
 import java.util.List;
-import java.util.ArrayList;
-import android.net.Uri;
-import com.example.petmanagement.utils.CurrencyFormatter;
 
-public class PetAdapter extends RecyclerView.Adapter<PetAdapter.PetViewHolder> {
-    private List<Pet> pets;
+public class PetAdapter extends WindowedAdapter<PetListItem, PetAdapter.PetViewHolder> {
+    private static final DiffUtil.ItemCallback<PetListItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<PetListItem>() {
+        @Override
+        public boolean areItemsTheSame(PetListItem oldItem, PetListItem newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(PetListItem oldItem, PetListItem newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private static final Diagnostics.Timer TIMER_CREATE = Diagnostics.timer("PetAdapter onCreateViewHolder");
+    private static final Diagnostics.Timer TIMER_BIND = Diagnostics.timer("PetAdapter onBindViewHolder");
+
     private PetClickListener clickListener;
 
     public interface PetClickListener {
-        void onPetClick(Pet pet);
-        void onPetLongClick(Pet pet);
+        void onPetClick(PetListItem pet);
+        void onPetLongClick(PetListItem pet);
     }
 
-    public PetAdapter(List<Pet> pets, PetClickListener listener) {
-        this.pets = pets != null ? pets : new ArrayList<>();
+    public PetAdapter(List<PetListItem> pets, PetClickListener listener) {
+        super(DIFF_CALLBACK, pets);
         this.clickListener = listener;
     }
 
     @Override
     public PetViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        long start = Diagnostics.start();
         View view = LayoutInflater.from(parent.getContext())
             .inflate(R.layout.item_pet, parent, false);
-        return new PetViewHolder(view);
+        PetViewHolder holder = new PetViewHolder(view);
+        TIMER_CREATE.stop(start);
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(PetViewHolder holder, int position) {
-        Pet pet = pets.get(position);
+        long start = Diagnostics.start();
+        PetListItem pet = getItem(position);
         holder.bind(pet);
         
         holder.itemView.setOnClickListener(v -> {
@@ -51,16 +67,18 @@ public class PetAdapter extends RecyclerView.Adapter<PetAdapter.PetViewHolder> {
             }
             return false;
         });
+        TIMER_BIND.stop(start);
     }
 
     @Override
-    public int getItemCount() {
-        return pets.size();
+    public void onViewRecycled(PetViewHolder holder) {
+        super.onViewRecycled(holder);
+        holder.unbind();
     }
 
-    public void updateList(List<Pet> newList) {
-        this.pets = newList;
-        notifyDataSetChanged();
+    @Override
+    protected long getItemId(PetListItem pet) {
+        return pet.getId();
     }
 
     static class PetViewHolder extends RecyclerView.ViewHolder {
@@ -79,21 +97,22 @@ public class PetAdapter extends RecyclerView.Adapter<PetAdapter.PetViewHolder> {
             statusChip = itemView.findViewById(R.id.statusChip);
         }
 
-        public void bind(Pet pet) {
+        public void bind(PetListItem pet) {
             petName.setText(pet.getName());
             petBreed.setText(pet.getBreed());
-            petPrice.setText(CurrencyFormatter.formatFCFA(pet.getPrice()));
+            petPrice.setText(Money.format(pet.getPrice()));
             
             statusChip.setText(pet.isAvailable() ? "Available" : "Sold");
             statusChip.setChipBackgroundColorResource(
                 pet.isAvailable() ? R.color.success_green : R.color.text_secondary
             );
 
-            if (pet.getImageUri() != null && !pet.getImageUri().isEmpty()) {
-                petImage.setImageURI(Uri.parse(pet.getImageUri()));
-            } else {
-                petImage.setImageResource(R.drawable.ic_baseline_pets_24);
-            }
+            PetImageLoader.getInstance(itemView.getContext())
+                .load(pet.getImageUri(), petImage, R.drawable.ic_baseline_pets_24);
+        }
+
+        public void unbind() {
+            PetImageLoader.getInstance(itemView.getContext()).cancel(petImage);
         }
     }
 }
@@ -0,0 +1,376 @@
+package com.example.petmanagement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The pets table held in memory column by column, for filtering, sorting
+ * and totals without a query: ids and prices in long arrays, availability
+ * in a BitSet and breeds as codes into a dictionary, rows in id order.
+ * Details are left out, as in PetListItem.
+ *
+ * Get it from DatabaseHelper.getPetCatalog, which fills it in one cursor pass
+ * and applies its own single-pet writes to it. Bulk writes and clearAllData
+ * drop it instead, so callers fetch it again after a change to the pets table.
+ * PetRepository pages the Pets tab out of it once it is loaded, or when
+ * catalog paging is turned on.
+ * All methods lock the catalog; results are copies.
+ */
+public final class PetCatalog {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int size;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private int[] breedCodes = new int[INITIAL_CAPACITY];
+    private String[] imageUris = new String[INITIAL_CAPACITY];
+    private final BitSet available = new BitSet();
+
+    // Breed dictionary; codes are never reused, so it only grows with new breeds
+    private final List<String> breeds = new ArrayList<>();
+    private final Map<String, Integer> breedCodesByName = new HashMap<>();
+    private long[] breedSpecies = new long[16];
+
+    // Rows in name and price order, built on first use and dropped by any change
+    private int[] byName;
+    private int[] byPrice;
+    // Rows matching the last query, in its list order; dropped by any change.
+    // Paging asks for the same query page after page, so this is usually a hit.
+    private PetQuery matchedQuery;
+    private int[] matchedRows;
+
+    /** Adds the pet, or replaces the row with its id. */
+    public synchronized void put(long id, String name, String breed, long price, boolean isAvailable,
+                                 String imageUri) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0) {
+            row = -row - 1;
+            insertRow(row);
+        }
+        ids[row] = id;
+        names[row] = name;
+        prices[row] = price;
+        breedCodes[row] = breedCode(breed);
+        imageUris[row] = imageUri;
+        available.set(row, isAvailable);
+        changed();
+    }
+
+    public void put(Pet pet) {
+        put(pet.getId(), pet.getName(), pet.getBreed(), pet.getPrice(), pet.isAvailable(), pet.getImageUri());
+    }
+
+    /** Removes the pet with this id; returns false if there was none. */
+    public synchronized boolean remove(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0) return false;
+        int moved = size - row - 1;
+        System.arraycopy(ids, row + 1, ids, row, moved);
+        System.arraycopy(names, row + 1, names, row, moved);
+        System.arraycopy(prices, row + 1, prices, row, moved);
+        System.arraycopy(breedCodes, row + 1, breedCodes, row, moved);
+        System.arraycopy(imageUris, row + 1, imageUris, row, moved);
+        for (int i = row; i < size - 1; i++) {
+            available.set(i, available.get(i + 1));
+        }
+        size--;
+        available.clear(size);
+        names[size] = null;
+        imageUris[size] = null;
+        changed();
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Ids of the pets matching query, in its sort order (by name when it has
+     * none), ties broken by id as in the database. Text matches any part of
+     * the name or breed, ignoring case, rather than going through the search
+     * index.
+     */
+    public synchronized long[] findIds(PetQuery query) {
+        int[] rows = matchingRows(query);
+        long[] found = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            found[i] = ids[rows[i]];
+        }
+        return found;
+    }
+
+    /**
+     * Keyset pages over findIds(query), with the same contract as
+     * DatabaseHelper.getPetsAfter: up to limit items after anchor, or the
+     * first page when anchor is null. The anchor needn't still be here.
+     */
+    public synchronized List<PetListItem> getPetsAfter(PetQuery query, PetListItem anchor, int limit) {
+        int[] rows = matchingRows(query);
+        int from = anchor != null ? search(rows, query, anchor, false) : 0;
+        return items(rows, from, Math.min(rows.length, from + limit));
+    }
+
+    /** Up to limit items just before anchor, in list order. */
+    public synchronized List<PetListItem> getPetsBefore(PetQuery query, PetListItem anchor, int limit) {
+        int[] rows = matchingRows(query);
+        int to = search(rows, query, anchor, true);
+        return items(rows, Math.max(0, to - limit), to);
+    }
+
+    /** Like getPetsAfter but including anchor, or starting where it would sort if it is gone. */
+    public synchronized List<PetListItem> getPetsFrom(PetQuery query, PetListItem anchor, int limit) {
+        int[] rows = matchingRows(query);
+        int from = anchor != null ? search(rows, query, anchor, true) : 0;
+        return items(rows, from, Math.min(rows.length, from + limit));
+    }
+
+    public synchronized int count(PetQuery query) {
+        if (isAvailabilityOnly(query)) {
+            int availableCount = available.cardinality();
+            switch (query.getAvailability()) {
+                case AVAILABLE: return availableCount;
+                case SOLD: return size - availableCount;
+                default: return size;
+            }
+        }
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (matches(row, query)) count++;
+        }
+        return count;
+    }
+
+    /** Sum of the prices of the matching pets, in minor units; for SOLD, the revenue. */
+    public synchronized long sumPrices(PetQuery query) {
+        long total = 0;
+        if (isAvailabilityOnly(query) && query.getAvailability() == PetQuery.Availability.AVAILABLE) {
+            for (int row = available.nextSetBit(0); row >= 0 && row < size; row = available.nextSetBit(row + 1)) {
+                total += prices[row];
+            }
+            return total;
+        }
+        if (isAvailabilityOnly(query) && query.getAvailability() == PetQuery.Availability.SOLD) {
+            for (int row = available.nextClearBit(0); row < size; row = available.nextClearBit(row + 1)) {
+                total += prices[row];
+            }
+            return total;
+        }
+        for (int row = 0; row < size; row++) {
+            if (matches(row, query)) total += prices[row];
+        }
+        return total;
+    }
+
+    private void changed() {
+        byName = null;
+        byPrice = null;
+        matchedQuery = null;
+        matchedRows = null;
+    }
+
+    private int[] matchingRows(PetQuery query) {
+        if (query.equals(matchedQuery)) {
+            return matchedRows;
+        }
+        PetQuery.Sort sort = sortOf(query);
+        int[] order = isPriceSort(sort) ? priceOrder() : nameOrder();
+        boolean descending = sort == PetQuery.Sort.NAME_DESC || sort == PetQuery.Sort.PRICE_DESC;
+        int[] rows = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int row = order[descending ? size - 1 - i : i];
+            if (matches(row, query)) {
+                rows[count++] = row;
+            }
+        }
+        matchedQuery = query;
+        matchedRows = Arrays.copyOf(rows, count);
+        return matchedRows;
+    }
+
+    // Position in rows of the first row at or after anchor (inclusive) or
+    // strictly after it, in list order; rows are sorted, so it bisects
+    private int search(int[] rows, PetQuery query, PetListItem anchor, boolean inclusive) {
+        PetQuery.Sort sort = sortOf(query);
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int c = compareToAnchor(rows[middle], sort, anchor);
+            if (c < 0 || (c == 0 && !inclusive)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int compareToAnchor(int row, PetQuery.Sort sort, PetListItem anchor) {
+        int c = isPriceSort(sort)
+                ? Long.compare(prices[row], anchor.getPrice())
+                : compareNoCase(names[row], anchor.getName());
+        if (c == 0) {
+            c = Long.compare(ids[row], anchor.getId());
+        }
+        return sort == PetQuery.Sort.NAME_DESC || sort == PetQuery.Sort.PRICE_DESC ? -c : c;
+    }
+
+    private static PetQuery.Sort sortOf(PetQuery query) {
+        return query.getSort() != null ? query.getSort() : PetQuery.Sort.NAME_ASC;
+    }
+
+    private static boolean isPriceSort(PetQuery.Sort sort) {
+        return sort == PetQuery.Sort.PRICE_ASC || sort == PetQuery.Sort.PRICE_DESC;
+    }
+
+    private List<PetListItem> items(int[] rows, int from, int to) {
+        List<PetListItem> items = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            items.add(item(rows[i]));
+        }
+        return items;
+    }
+
+    private static boolean isAvailabilityOnly(PetQuery query) {
+        return !query.hasText() && query.getSpeciesId() == PetQuery.ANY_SPECIES;
+    }
+
+    private boolean matches(int row, PetQuery query) {
+        switch (query.getAvailability()) {
+            case AVAILABLE:
+                if (!available.get(row)) return false;
+                break;
+            case SOLD:
+                if (available.get(row)) return false;
+                break;
+            default:
+                break;
+        }
+        int breedCode = breedCodes[row];
+        if (query.getSpeciesId() != PetQuery.ANY_SPECIES && breedSpecies[breedCode] != query.getSpeciesId()) {
+            return false;
+        }
+        return !query.hasText()
+                || containsIgnoreCase(names[row], query.getText())
+                || containsIgnoreCase(breeds.get(breedCode), query.getText());
+    }
+
+    private static boolean containsIgnoreCase(String value, String part) {
+        if (value == null) return false;
+        for (int i = 0; i <= value.length() - part.length(); i++) {
+            if (value.regionMatches(true, i, part, 0, part.length())) return true;
+        }
+        return false;
+    }
+
+    private PetListItem item(int row) {
+        return new PetListItem(ids[row], names[row], breeds.get(breedCodes[row]), prices[row],
+                available.get(row), imageUris[row]);
+    }
+
+    private int breedCode(String breed) {
+        Integer code = breedCodesByName.get(breed);
+        if (code != null) return code;
+        int added = breeds.size();
+        breeds.add(breed);
+        breedCodesByName.put(breed, added);
+        if (added == breedSpecies.length) {
+            breedSpecies = Arrays.copyOf(breedSpecies, added * 2);
+        }
+        breedSpecies[added] = Species.classify(breed);
+        return added;
+    }
+
+    private void insertRow(int row) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            breedCodes = Arrays.copyOf(breedCodes, capacity);
+            imageUris = Arrays.copyOf(imageUris, capacity);
+        }
+        int moved = size - row;
+        System.arraycopy(ids, row, ids, row + 1, moved);
+        System.arraycopy(names, row, names, row + 1, moved);
+        System.arraycopy(prices, row, prices, row + 1, moved);
+        System.arraycopy(breedCodes, row, breedCodes, row + 1, moved);
+        System.arraycopy(imageUris, row, imageUris, row + 1, moved);
+        for (int i = size; i > row; i--) {
+            available.set(i, available.get(i - 1));
+        }
+        size++;
+    }
+
+    private int[] nameOrder() {
+        if (byName == null) {
+            byName = sortedRows(true);
+        }
+        return byName;
+    }
+
+    private int[] priceOrder() {
+        if (byPrice == null) {
+            byPrice = sortedRows(false);
+        }
+        return byPrice;
+    }
+
+    // Merge sort of row numbers; rows start in id order and the sort is
+    // stable, so equal keys stay in id order without comparing ids
+    private int[] sortedRows(boolean byName) {
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        int[] scratch = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int from = 0; from < size - width; from += 2 * width) {
+                merge(rows, scratch, from, from + width, Math.min(from + 2 * width, size), byName);
+            }
+        }
+        return rows;
+    }
+
+    private void merge(int[] rows, int[] scratch, int from, int middle, int to, boolean byName) {
+        System.arraycopy(rows, from, scratch, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && compare(scratch[left], scratch[right], byName) <= 0)) {
+                rows[i] = scratch[left++];
+            } else {
+                rows[i] = scratch[right++];
+            }
+        }
+    }
+
+    private int compare(int a, int b, boolean byName) {
+        return byName ? compareNoCase(names[a], names[b]) : Long.compare(prices[a], prices[b]);
+    }
+
+    // Like SQLite's NOCASE: only ASCII letters fold, and NULL sorts first
+    private static int compareNoCase(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y) {
+                if (x >= 'A' && x <= 'Z') x += 'a' - 'A';
+                if (y >= 'A' && y <= 'Z') y += 'a' - 'A';
+                if (x != y) return x - y;
+            }
+        }
+        return a.length() - b.length();
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.petmanagement;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.DocumentsContract;
+import android.util.JsonWriter;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the pets table to a document as CSV or JSON. Rows are read one
+ * id range at a time and written straight from the cursor, so memory use
+ * stays flat however many pets there are.
+ */
+public class PetExporter {
+    public enum Format { CSV, JSON }
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] COLUMNS = {
+        DatabaseHelper.COLUMN_ID, DatabaseHelper.COLUMN_NAME, DatabaseHelper.COLUMN_BREED,
+        DatabaseHelper.COLUMN_PRICE, DatabaseHelper.COLUMN_AVAILABLE, DatabaseHelper.COLUMN_DETAILS,
+        DatabaseHelper.COLUMN_IMAGE_URI
+    };
+
+    // Exports are long and rare, keep them off the shared database pool
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "pet-export"));
+
+    public interface Listener {
+        void onProgress(int exported, int total);
+
+        void onFinished(int exported);
+
+        void onCancelled();
+
+        void onError(Exception e);
+    }
+
+    public static class Task {
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final Context appContext;
+    private final DatabaseHelper dbHelper;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public PetExporter(Context context, DatabaseHelper dbHelper) {
+        this.appContext = context.getApplicationContext();
+        this.dbHelper = dbHelper;
+    }
+
+    /** Starts writing to target in the background; listener calls arrive on the main thread. */
+    public Task export(Uri target, Format format, boolean gzip, Listener listener) {
+        Task task = new Task();
+        executor.execute(() -> {
+            try {
+                int exported = write(target, format, gzip, task, listener);
+                if (task.isCancelled()) {
+                    discard(target);
+                    mainHandler.post(listener::onCancelled);
+                } else {
+                    mainHandler.post(() -> listener.onFinished(exported));
+                }
+            } catch (Exception e) {
+                discard(target);
+                mainHandler.post(() -> listener.onError(e));
+            }
+        });
+        return task;
+    }
+
+    private int write(Uri target, Format format, boolean gzip, Task task, Listener listener) throws IOException {
+        int total = dbHelper.getDashboardStats().getTotalPets();
+        OutputStream raw = appContext.getContentResolver().openOutputStream(target, "w");
+        if (raw == null) {
+            throw new IOException("Cannot open " + target);
+        }
+
+        OutputStream out = new BufferedOutputStream(raw, BUFFER_SIZE);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            RowWriter rows = format == Format.CSV ? new CsvRowWriter(writer) : new JsonRowWriter(writer);
+            rows.begin();
+
+            int exported = 0;
+            long lastId = 0;
+            while (!task.isCancelled()) {
+                int inChunk = 0;
+                try (Cursor cursor = dbHelper.queryPetsAfterId(lastId, CHUNK_SIZE)) {
+                    int[] columns = new int[COLUMNS.length];
+                    for (int i = 0; i < COLUMNS.length; i++) {
+                        columns[i] = cursor.getColumnIndexOrThrow(COLUMNS[i]);
+                    }
+                    while (cursor.moveToNext() && !task.isCancelled()) {
+                        rows.write(cursor, columns);
+                        lastId = cursor.getLong(columns[0]);
+                        inChunk++;
+                    }
+                }
+                exported += inChunk;
+                if (inChunk < CHUNK_SIZE) break;
+
+                int progress = exported;
+                mainHandler.post(() -> listener.onProgress(progress, Math.max(total, progress)));
+            }
+
+            rows.end();
+            return exported;
+        }
+    }
+
+    private void discard(Uri target) {
+        // Don't leave a half-written export behind
+        try {
+            DocumentsContract.deleteDocument(appContext.getContentResolver(), target);
+        } catch (Exception ignored) {
+        }
+    }
+
+    private interface RowWriter {
+        void begin() throws IOException;
+
+        void write(Cursor cursor, int[] columns) throws IOException;
+
+        void end() throws IOException;
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) writer.write(',');
+                writer.write(COLUMNS[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Cursor cursor, int[] columns) throws IOException {
+            writer.write(Long.toString(cursor.getLong(columns[0])));
+            writer.write(',');
+            writeField(cursor.getString(columns[1]));
+            writer.write(',');
+            writeField(cursor.getString(columns[2]));
+            writer.write(',');
+            writer.write(Money.toPlainString(cursor.getLong(columns[3])));
+            writer.write(',');
+            writer.write(cursor.getInt(columns[4]) == 1 ? "true" : "false");
+            writer.write(',');
+            writeField(cursor.getString(columns[5]));
+            writer.write(',');
+            writeField(cursor.getString(columns[6]));
+            writer.write("\r\n");
+        }
+
+        // RFC 4180 quoting, only when the value needs it
+        private void writeField(String value) throws IOException {
+            if (value == null) return;
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') writer.write('"');
+                writer.write(c);
+            }
+            writer.write('"');
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+
+    private static class JsonRowWriter implements RowWriter {
+        private final JsonWriter json;
+
+        JsonRowWriter(Writer writer) {
+            json = new JsonWriter(writer);
+        }
+
+        @Override
+        public void begin() throws IOException {
+            json.beginArray();
+        }
+
+        @Override
+        public void write(Cursor cursor, int[] columns) throws IOException {
+            json.beginObject();
+            json.name(COLUMNS[0]).value(cursor.getLong(columns[0]));
+            json.name(COLUMNS[1]).value(cursor.getString(columns[1]));
+            json.name(COLUMNS[2]).value(cursor.getString(columns[2]));
+            json.name(COLUMNS[3]).value(Money.toMajor(cursor.getLong(columns[3])));
+            json.name(COLUMNS[4]).value(cursor.getInt(columns[4]) == 1);
+            json.name(COLUMNS[5]).value(cursor.getString(columns[5]));
+            json.name(COLUMNS[6]).value(cursor.getString(columns[6]));
+            json.endObject();
+        }
+
+        @Override
+        public void end() throws IOException {
+            json.endArray();
+            json.flush();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.petmanagement;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.LruCache;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads pet photos for list rows. Images are decoded off the main thread and
+ * downsampled to the size of the target view. The thumbnails are kept in a
+ * memory LRU and in a cache directory on disk, so a photo is decoded at full
+ * size at most once per size.
+ */
+public class PetImageLoader {
+    private static final String DISK_CACHE_DIR = "pet_thumbs";
+    private static final long MAX_DISK_CACHE_BYTES = 20L * 1024 * 1024;
+    private static final int TRIM_EVERY_WRITES = 20;
+    private static final int DEFAULT_SIZE_DP = 96;
+    private static final int JPEG_QUALITY = 85;
+
+    private static PetImageLoader instance;
+
+    private final Context appContext;
+    private final File diskCacheDir;
+    private final LruCache<String, Bitmap> memoryCache;
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, runnable ->
+            new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "pet-images"));
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final int defaultSizePx;
+    private int writesSinceTrim;
+
+    public static synchronized PetImageLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new PetImageLoader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private PetImageLoader(Context context) {
+        appContext = context;
+        diskCacheDir = new File(context.getCacheDir(), DISK_CACHE_DIR);
+        defaultSizePx = (int) (DEFAULT_SIZE_DP * context.getResources().getDisplayMetrics().density);
+
+        // An eighth of the heap, measured in KB
+        int cacheKb = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+        memoryCache = new LruCache<String, Bitmap>(cacheKb) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount() / 1024;
+            }
+        };
+    }
+
+    /**
+     * Shows imageUri in view, or the placeholder while it loads or if it
+     * cannot be read. Any earlier load still pending for the view is cancelled.
+     */
+    public void load(String imageUri, ImageView view, int placeholderRes) {
+        cancel(view);
+        if (imageUri == null || imageUri.isEmpty()) {
+            view.setImageResource(placeholderRes);
+            return;
+        }
+
+        int targetSize = targetSize(view);
+        String key = imageUri + "@" + targetSize;
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            view.setImageBitmap(cached);
+            return;
+        }
+
+        view.setImageResource(placeholderRes);
+        Request request = new Request(imageUri, key, targetSize, view);
+        view.setTag(request);
+        request.future = executor.submit(request);
+    }
+
+    /** Drops the pending load for a view, e.g. when its row is recycled. */
+    public void cancel(ImageView view) {
+        Object tag = view.getTag();
+        if (tag instanceof Request) {
+            ((Request) tag).cancel();
+            view.setTag(null);
+        }
+    }
+
+    private int targetSize(ImageView view) {
+        int size = Math.max(view.getWidth(), view.getHeight());
+        if (size <= 0) {
+            ViewGroup.LayoutParams params = view.getLayoutParams();
+            if (params != null) {
+                size = Math.max(params.width, params.height);
+            }
+        }
+        return size > 0 ? size : defaultSizePx;
+    }
+
+    private class Request implements Runnable {
+        final String imageUri;
+        final String key;
+        final int targetSize;
+        final ImageView view;
+        volatile boolean cancelled;
+        volatile Future<?> future;
+
+        Request(String imageUri, String key, int targetSize, ImageView view) {
+            this.imageUri = imageUri;
+            this.key = key;
+            this.targetSize = targetSize;
+            this.view = view;
+        }
+
+        void cancel() {
+            cancelled = true;
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) return;
+            Bitmap bitmap = readFromDisk(key);
+            if (bitmap == null && !cancelled) {
+                bitmap = decodeSampled(imageUri, targetSize);
+                if (bitmap != null) {
+                    writeToDisk(key, bitmap);
+                }
+            }
+            if (bitmap == null) return;
+
+            memoryCache.put(key, bitmap);
+            Bitmap result = bitmap;
+            mainHandler.post(() -> {
+                if (!cancelled && view.getTag() == this) {
+                    view.setImageBitmap(result);
+                    view.setTag(null);
+                }
+            });
+        }
+    }
+
+    private Bitmap decodeSampled(String imageUri, int targetSize) {
+        Uri uri = Uri.parse(imageUri);
+        try {
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inJustDecodeBounds = true;
+            try (InputStream in = appContext.getContentResolver().openInputStream(uri)) {
+                if (in == null) return null;
+                BitmapFactory.decodeStream(in, null, options);
+            }
+            if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+            options.inSampleSize = sampleSize(options.outWidth, options.outHeight, targetSize);
+            options.inJustDecodeBounds = false;
+            try (InputStream in = appContext.getContentResolver().openInputStream(uri)) {
+                if (in == null) return null;
+                return BitmapFactory.decodeStream(in, null, options);
+            }
+        } catch (IOException | SecurityException e) {
+            // Photo deleted or permission revoked: keep the placeholder
+            return null;
+        }
+    }
+
+    // Largest power of two that keeps the shorter side at or above targetSize
+    static int sampleSize(int width, int height, int targetSize) {
+        int sampleSize = 1;
+        int shortSide = Math.min(width, height);
+        while (shortSide / (sampleSize * 2) >= targetSize) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    private Bitmap readFromDisk(String key) {
+        File file = new File(diskCacheDir, diskName(key));
+        if (!file.exists()) return null;
+        Bitmap bitmap = BitmapFactory.decodeFile(file.getPath());
+        if (bitmap != null) {
+            // Keeps recently used thumbnails last in line for trimming
+            file.setLastModified(System.currentTimeMillis());
+        }
+        return bitmap;
+    }
+
+    private void writeToDisk(String key, Bitmap bitmap) {
+        if (!diskCacheDir.exists() && !diskCacheDir.mkdirs()) return;
+        File file = new File(diskCacheDir, diskName(key));
+        File tmp = new File(diskCacheDir, file.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        } catch (IOException e) {
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            return;
+        }
+
+        synchronized (this) {
+            if (++writesSinceTrim < TRIM_EVERY_WRITES) return;
+            writesSinceTrim = 0;
+        }
+        trimDiskCache();
+    }
+
+    private synchronized void trimDiskCache() {
+        File[] files = diskCacheDir.listFiles();
+        if (files == null) return;
+
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        if (total <= MAX_DISK_CACHE_BYTES) return;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (total <= MAX_DISK_CACHE_BYTES) break;
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+    }
+
+    private static String diskName(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(hash.length * 2 + 4);
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16))
+                    .append(Character.forDigit(b & 0xf, 16));
+            }
+            return name.append(".jpg").toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(key.hashCode()) + ".jpg";
+        }
+    }
+}
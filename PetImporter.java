@@ -0,0 +1,393 @@
+package com.example.petmanagement;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads a supplier catalog from a CSV or JSON document (optionally gzipped)
+ * without reading it into memory. Rows are validated like the pet form,
+ * pets already in the catalog are skipped, and writes go through
+ * DatabaseHelper.insertNewPets in batches. After each batch the number of
+ * source rows handled is saved, so importing the same document again after
+ * an interruption picks up where it stopped.
+ */
+public class PetImporter {
+    private static final int BATCH_SIZE = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Keep the report small even if every row of a huge file is bad
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final String CHECKPOINT_PREFS = "import_checkpoints";
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "pet-import"));
+
+    public interface Listener {
+        void onProgress(int rowsRead, BulkWriteResult written);
+
+        void onFinished(Report report);
+
+        void onCancelled(Report report);
+
+        void onError(Exception e);
+    }
+
+    public static class Task {
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    public static class Report {
+        private final int resumedFrom;
+        private final int rowsRead;
+        private final int invalidRows;
+        private final List<String> errors;
+        private final BulkWriteResult written;
+        private final long elapsedMillis;
+
+        Report(int resumedFrom, int rowsRead, int invalidRows, List<String> errors,
+               BulkWriteResult written, long elapsedMillis) {
+            this.resumedFrom = resumedFrom;
+            this.rowsRead = rowsRead;
+            this.invalidRows = invalidRows;
+            this.errors = errors;
+            this.written = written;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        // Source rows skipped because an earlier run already handled them
+        public int getResumedFrom() { return resumedFrom; }
+        public int getRowsRead() { return rowsRead; }
+        public int getInvalidRows() { return invalidRows; }
+        public int getInserted() { return written.getInserted(); }
+        public int getDuplicates() { return written.getSkipped(); }
+        public int getFailed() { return written.getFailures().size(); }
+        public List<String> getErrors() { return errors; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        public double getRowsPerSecond() {
+            int handled = rowsRead - resumedFrom;
+            return elapsedMillis > 0 ? handled * 1000.0 / elapsedMillis : handled;
+        }
+    }
+
+    private final Context appContext;
+    private final DatabaseHelper dbHelper;
+    private final SharedPreferences checkpoints;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public PetImporter(Context context, DatabaseHelper dbHelper) {
+        this.appContext = context.getApplicationContext();
+        this.dbHelper = dbHelper;
+        this.checkpoints = appContext.getSharedPreferences(CHECKPOINT_PREFS, Context.MODE_PRIVATE);
+    }
+
+    /** Source rows already imported from this document by an unfinished run, or 0. */
+    public int getCheckpoint(Uri source) {
+        return checkpoints.getInt(source.toString(), 0);
+    }
+
+    public void clearCheckpoint(Uri source) {
+        checkpoints.edit().remove(source.toString()).apply();
+    }
+
+    /** Forgets every unfinished run, e.g. once the pets they imported are deleted. */
+    public void clearAllCheckpoints() {
+        checkpoints.edit().clear().apply();
+    }
+
+    /** Starts importing in the background; listener calls arrive on the main thread. */
+    public Task importFrom(Uri source, Listener listener) {
+        Task task = new Task();
+        executor.execute(() -> {
+            try {
+                Report report = run(source, task, listener);
+                if (task.isCancelled()) {
+                    mainHandler.post(() -> listener.onCancelled(report));
+                } else {
+                    clearCheckpoint(source);
+                    mainHandler.post(() -> listener.onFinished(report));
+                }
+            } catch (Exception e) {
+                mainHandler.post(() -> listener.onError(e));
+            }
+        });
+        return task;
+    }
+
+    private Report run(Uri source, Task task, Listener listener) throws IOException {
+        long start = SystemClock.elapsedRealtime();
+        int resumeFrom = getCheckpoint(source);
+
+        InputStream raw = appContext.getContentResolver().openInputStream(source);
+        if (raw == null) {
+            throw new IOException("Cannot open " + source);
+        }
+        try (Reader reader = openReader(raw)) {
+            RowParser parser = startsWithJson(reader) ? new JsonRowParser(reader) : new CsvRowParser(reader);
+            RowIterator rows = new RowIterator(parser, resumeFrom, task);
+
+            BulkWriteResult written = dbHelper.insertNewPets(rows, BATCH_SIZE, progress -> {
+                // The batch is committed, so these rows never need reading again
+                checkpoints.edit().putInt(source.toString(), rows.getRowsConsumed()).apply();
+                int rowsRead = rows.getRowsConsumed();
+                mainHandler.post(() -> listener.onProgress(rowsRead, progress));
+            });
+
+            return new Report(resumeFrom, rows.getRowsConsumed(), rows.invalidRows,
+                    Collections.unmodifiableList(rows.errors), written,
+                    SystemClock.elapsedRealtime() - start);
+        }
+    }
+
+    private static Reader openReader(InputStream raw) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(raw, BUFFER_SIZE);
+        // gzip files start with 0x1f 0x8b whatever their name
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        InputStream data = first == 0x1f && second == 0x8b ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+        return new BufferedReader(new InputStreamReader(data, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static boolean startsWithJson(Reader reader) throws IOException {
+        reader.mark(BUFFER_SIZE);
+        int c;
+        do {
+            c = reader.read();
+        } while (c != -1 && (Character.isWhitespace(c) || c == '\uFEFF'));
+        reader.reset();
+        return c == '[';
+    }
+
+    /** Yields valid pets from the parser, skipping rows an earlier run already imported. */
+    private static class RowIterator implements Iterator<Pet> {
+        private final RowParser parser;
+        private final int skipRows;
+        private final Task task;
+        private final List<String> errors = new ArrayList<>();
+        private int invalidRows;
+        // Source rows read so far, and the count up to the last pet handed out
+        private int rowsRead;
+        private int rowsConsumed;
+        private Pet next;
+        private int nextRowNumber;
+
+        RowIterator(RowParser parser, int skipRows, Task task) {
+            this.parser = parser;
+            this.skipRows = skipRows;
+            this.task = task;
+            this.rowsConsumed = skipRows;
+        }
+
+        int getRowsConsumed() {
+            return next == null ? Math.max(rowsConsumed, rowsRead) : rowsConsumed;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) return true;
+            try {
+                Map<String, String> row;
+                while (!task.isCancelled() && (row = parser.next()) != null) {
+                    rowsRead++;
+                    if (rowsRead <= skipRows) continue;
+
+                    String name = row.get(DatabaseHelper.COLUMN_NAME);
+                    String breed = row.get(DatabaseHelper.COLUMN_BREED);
+                    String price = row.get(DatabaseHelper.COLUMN_PRICE);
+                    String error = PetValidator.validate(name, breed, price);
+                    if (error != null) {
+                        invalidRows++;
+                        if (errors.size() < MAX_REPORTED_ERRORS) {
+                            errors.add("Row " + rowsRead + ": " + error);
+                        }
+                        continue;
+                    }
+
+                    next = new Pet(0, name.trim(), breed.trim(), Money.parse(price),
+                            parseAvailable(row.get(DatabaseHelper.COLUMN_AVAILABLE)),
+                            trimToNull(row.get(DatabaseHelper.COLUMN_DETAILS)),
+                            trimToNull(row.get(DatabaseHelper.COLUMN_IMAGE_URI)));
+                    nextRowNumber = rowsRead;
+                    return true;
+                }
+                return false;
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read import file at row " + (rowsRead + 1), e);
+            }
+        }
+
+        @Override
+        public Pet next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Pet pet = next;
+            next = null;
+            rowsConsumed = nextRowNumber;
+            return pet;
+        }
+
+        private static boolean parseAvailable(String value) {
+            if (value == null || value.trim().isEmpty()) return true;
+            String v = value.trim().toLowerCase(Locale.ROOT);
+            return !(v.equals("false") || v.equals("0") || v.equals("no") || v.equals("sold"));
+        }
+
+        private static String trimToNull(String value) {
+            if (value == null) return null;
+            String trimmed = value.trim();
+            return trimmed.isEmpty() ? null : trimmed;
+        }
+    }
+
+    private interface RowParser {
+        /** Next row keyed by lower-case column name, or null at the end. */
+        Map<String, String> next() throws IOException;
+    }
+
+    /** RFC 4180 CSV with a header row; quoted fields may span lines. */
+    private static class CsvRowParser implements RowParser {
+        private final Reader reader;
+        private final StringBuilder field = new StringBuilder();
+        private final List<String> record = new ArrayList<>();
+        private List<String> header;
+        private boolean eof;
+
+        CsvRowParser(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (header == null) {
+                List<String> names = readRecord();
+                if (names == null) return null;
+                header = new ArrayList<>();
+                for (String name : names) {
+                    header.add(name.trim().toLowerCase(Locale.ROOT).replace("\uFEFF", ""));
+                }
+            }
+
+            List<String> values;
+            do {
+                values = readRecord();
+                if (values == null) return null;
+            } while (values.size() == 1 && values.get(0).isEmpty());  // blank line
+
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                row.put(header.get(i), values.get(i));
+            }
+            return row;
+        }
+
+        private List<String> readRecord() throws IOException {
+            if (eof) return null;
+            record.clear();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean sawAny = false;
+            while (true) {
+                int c = reader.read();
+                if (c == -1) {
+                    eof = true;
+                    if (!sawAny) return null;
+                    record.add(field.toString());
+                    return new ArrayList<>(record);
+                }
+                sawAny = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    record.add(field.toString());
+                    return new ArrayList<>(record);
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+        }
+    }
+
+    /** A top-level JSON array of flat objects, read one object at a time. */
+    private static class JsonRowParser implements RowParser {
+        private final JsonReader json;
+        private boolean started;
+
+        JsonRowParser(Reader reader) {
+            json = new JsonReader(reader);
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (!started) {
+                json.beginArray();
+                started = true;
+            }
+            if (!json.hasNext()) return null;
+
+            Map<String, String> row = new HashMap<>();
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName().toLowerCase(Locale.ROOT);
+                JsonToken token = json.peek();
+                if (token == JsonToken.NULL) {
+                    json.nextNull();
+                } else if (token == JsonToken.BOOLEAN) {
+                    row.put(name, String.valueOf(json.nextBoolean()));
+                } else if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                    row.put(name, json.nextString());
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+            return row;
+        }
+    }
+}
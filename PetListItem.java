@@ -0,0 +1,52 @@
+package com.example.petmanagement;
+
+import java.util.Objects;
+
+/**
+ * What a pet list row shows. Leaves out details, which can be long, so list
+ * queries stay cheap; the full Pet is loaded by id when a row is opened.
+ */
+public class PetListItem {
+    private final long id;
+    private final String name;
+    private final String breed;
+    private final long price;
+    private final boolean available;
+    private final String imageUri;
+
+    public PetListItem(long id, String name, String breed, long price, boolean available, String imageUri) {
+        this.id = id;
+        this.name = name;
+        this.breed = breed;
+        this.price = price;
+        this.available = available;
+        this.imageUri = imageUri;
+    }
+
+    public long getId() { return id; }
+    public String getName() { return name; }
+    public String getBreed() { return breed; }
+    // In minor units; see Money
+    public long getPrice() { return price; }
+    public boolean isAvailable() { return available; }
+    public String getImageUri() { return imageUri; }
+
+    // Content equality, used by PetAdapter to tell an edited row from an unchanged one
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PetListItem)) return false;
+        PetListItem other = (PetListItem) o;
+        return id == other.id
+            && price == other.price
+            && available == other.available
+            && Objects.equals(name, other.name)
+            && Objects.equals(breed, other.breed)
+            && Objects.equals(imageUri, other.imageUri);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, breed, price, available, imageUri);
+    }
+}
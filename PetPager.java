@@ -0,0 +1,38 @@
+package com.example.petmanagement;
+
+import java.util.List;
+
+/** Pages the pets list in the order and filter of the current PetQuery. */
+public class PetPager extends KeysetPager<PetListItem> {
+    private final PetRepository repository;
+    private PetQuery query = PetQuery.ALL;
+
+    public PetPager(PetRepository repository, PetAdapter adapter) {
+        super(adapter, "pets");
+        this.repository = repository;
+    }
+
+    /** Throws the window away and loads the first page for the given filter and sort. */
+    public void reload(PetQuery query) {
+        this.query = query;
+        reload();
+    }
+
+    @Override
+    protected PetRepository.Task loadAfter(PetListItem anchor, int limit,
+                                           PetRepository.Callback<List<PetListItem>> callback) {
+        return repository.getPetsAfter(query, anchor, limit, callback);
+    }
+
+    @Override
+    protected PetRepository.Task loadBefore(PetListItem anchor, int limit,
+                                            PetRepository.Callback<List<PetListItem>> callback) {
+        return repository.getPetsBefore(query, anchor, limit, callback);
+    }
+
+    @Override
+    protected PetRepository.Task loadFrom(PetListItem anchor, int limit,
+                                          PetRepository.Callback<List<PetListItem>> callback) {
+        return repository.getPetsFrom(query, anchor, limit, callback);
+    }
+}
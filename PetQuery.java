@@ -0,0 +1,72 @@
+package com.example.petmanagement;
+
+import java.util.Objects;
+
+/**
+ * What the pets list is showing: search text, availability and species
+ * filters and sort order. Immutable; the with* methods return a changed copy.
+ */
+public final class PetQuery {
+    public enum Availability { ALL, AVAILABLE, SOLD }
+
+    public enum Sort { NAME_ASC, NAME_DESC, PRICE_ASC, PRICE_DESC }
+
+    public static final long ANY_SPECIES = 0;
+
+    public static final PetQuery ALL = new PetQuery("", Availability.ALL, ANY_SPECIES, null);
+
+    private final String text;
+    private final Availability availability;
+    private final long speciesId;
+    private final Sort sort;
+
+    private PetQuery(String text, Availability availability, long speciesId, Sort sort) {
+        this.text = text;
+        this.availability = availability;
+        this.speciesId = speciesId;
+        this.sort = sort;
+    }
+
+    public String getText() { return text; }
+    public Availability getAvailability() { return availability; }
+    public long getSpeciesId() { return speciesId; }
+
+    /** The chosen sort, or null for the natural order: by name, or best match first when searching. */
+    public Sort getSort() { return sort; }
+
+    public boolean hasText() {
+        return !text.isEmpty();
+    }
+
+    public PetQuery withText(String text) {
+        return new PetQuery(text != null ? text.trim() : "", availability, speciesId, sort);
+    }
+
+    public PetQuery withAvailability(Availability availability) {
+        return new PetQuery(text, availability, speciesId, sort);
+    }
+
+    public PetQuery withSpecies(long speciesId) {
+        return new PetQuery(text, availability, speciesId, sort);
+    }
+
+    public PetQuery withSort(Sort sort) {
+        return new PetQuery(text, availability, speciesId, sort);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PetQuery)) return false;
+        PetQuery other = (PetQuery) o;
+        return text.equals(other.text)
+                && availability == other.availability
+                && speciesId == other.speciesId
+                && sort == other.sort;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(text, availability, speciesId, sort);
+    }
+}
@@ -0,0 +1,424 @@
+package com.example.petmanagement;
+
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs DatabaseHelper calls on a small background pool and posts the results
+ * back to the main thread. Each screen owns its own repository so that
+ * {@link #cancelAll()} only drops the work that screen started.
+ */
+public class PetRepository {
+    private static final int THREAD_COUNT = 2;
+    private static final int QUEUE_CAPACITY = 64;
+
+    private static final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    // Shared by every repository instance so the whole app never runs more
+    // than THREAD_COUNT database jobs at once.
+    private static final ExecutorService executor = new ThreadPoolExecutor(
+            THREAD_COUNT, THREAD_COUNT,
+            30L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+            runnable -> new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "pet-db-" + threadNumber.getAndIncrement()));
+
+    static {
+        ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+    }
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public interface Callback<T> {
+        void onResult(T result);
+
+        default void onError(Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Handle to a submitted job; cancelling it guarantees the callback never
+     * fires. A queued read is dropped too, but a write still runs.
+     */
+    public static class Task {
+        private final boolean write;
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+
+        Task(boolean write) {
+            this.write = write;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            Future<?> f = future;
+            if (f != null && !write) {
+                // Never interrupt a running statement, just drop queued work and the result
+                f.cancel(false);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Registration made by {@link #observeTables} or {@link #observe}. Calls
+     * onChanged on the main thread after a write to one of its tables; a run
+     * of commits that lands before the callback (e.g. an import) collapses
+     * into a single call. While paused, changes are only remembered and
+     * resume() catches up with one call.
+     */
+    public static class Subscription implements DatabaseHelper.TableObserver {
+        private final DatabaseHelper dbHelper;
+        private final Set<String> tables;
+        private final Runnable onChanged;
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private final AtomicBoolean missed = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private volatile boolean paused;
+
+        Subscription(DatabaseHelper dbHelper, Set<String> tables, Runnable onChanged) {
+            this.dbHelper = dbHelper;
+            this.tables = tables;
+            this.onChanged = onChanged;
+        }
+
+        @Override
+        public void onTablesChanged(Set<String> changed) {
+            if (cancelled || Collections.disjoint(tables, changed)) return;
+            if (paused) {
+                missed.set(true);
+                return;
+            }
+            if (pending.compareAndSet(false, true)) {
+                mainHandler.post(() -> {
+                    pending.set(false);
+                    if (cancelled) return;
+                    if (paused) {
+                        missed.set(true);
+                    } else {
+                        onChanged.run();
+                    }
+                });
+            }
+        }
+
+        public void pause() {
+            paused = true;
+        }
+
+        public void resume() {
+            paused = false;
+            if (!cancelled && missed.getAndSet(false)) {
+                onChanged.run();
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+            dbHelper.removeTableObserver(this);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    // Re-runs one query per invalidation, never two at once: a change that
+    // arrives mid-run just queues one more run after the current result.
+    private class LiveQuery<T> {
+        private final Callable<T> query;
+        private final Callback<T> callback;
+        private Subscription subscription;
+        private boolean running;
+        private boolean stale;
+
+        LiveQuery(Callable<T> query, Callback<T> callback) {
+            this.query = query;
+            this.callback = callback;
+        }
+
+        void invalidate() {
+            if (subscription.isCancelled()) return;
+            if (running) {
+                stale = true;
+                return;
+            }
+            running = true;
+            execute(query, new Callback<T>() {
+                @Override
+                public void onResult(T result) {
+                    running = false;
+                    if (subscription.isCancelled()) return;
+                    callback.onResult(result);
+                    rerunIfStale();
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    running = false;
+                    if (subscription.isCancelled()) return;
+                    callback.onError(e);
+                    rerunIfStale();
+                }
+            });
+        }
+
+        private void rerunIfStale() {
+            if (stale) {
+                stale = false;
+                invalidate();
+            }
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+    private final Set<Task> activeTasks = Collections.synchronizedSet(new HashSet<>());
+    private final Set<Subscription> subscriptions = new HashSet<>();
+    private volatile boolean catalogPaging;
+
+    public PetRepository(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    public Task getAllPets(Callback<List<Pet>> callback) {
+        return execute(dbHelper::getAllPets, callback);
+    }
+
+    public Task getPet(long petId, Callback<Pet> callback) {
+        return execute(() -> dbHelper.getPetById(petId), callback);
+    }
+
+    public Task getPetsAfter(PetQuery query, PetListItem anchor, int limit, Callback<List<PetListItem>> callback) {
+        return execute(() -> {
+            PetCatalog catalog = pagingCatalog();
+            return catalog != null ? catalog.getPetsAfter(query, anchor, limit)
+                    : dbHelper.getPetsAfter(query, anchor, limit);
+        }, callback);
+    }
+
+    public Task getPetsFrom(PetQuery query, PetListItem anchor, int limit, Callback<List<PetListItem>> callback) {
+        return execute(() -> {
+            PetCatalog catalog = pagingCatalog();
+            return catalog != null ? catalog.getPetsFrom(query, anchor, limit)
+                    : dbHelper.getPetsFrom(query, anchor, limit);
+        }, callback);
+    }
+
+    public Task getPetsBefore(PetQuery query, PetListItem anchor, int limit, Callback<List<PetListItem>> callback) {
+        return execute(() -> {
+            PetCatalog catalog = pagingCatalog();
+            return catalog != null ? catalog.getPetsBefore(query, anchor, limit)
+                    : dbHelper.getPetsBefore(query, anchor, limit);
+        }, callback);
+    }
+
+    /**
+     * Lets the pet pages above load the whole table into the PetCatalog and
+     * page out of it. Off by default: they use the SQL keyset queries unless
+     * something else has already loaded the catalog.
+     */
+    public void setCatalogPaging(boolean enabled) {
+        catalogPaging = enabled;
+    }
+
+    private PetCatalog pagingCatalog() {
+        return catalogPaging ? dbHelper.getPetCatalog() : dbHelper.getLoadedPetCatalog();
+    }
+
+    public Task searchPets(String query, Callback<List<PetListItem>> callback) {
+        return execute(() -> dbHelper.searchPets(query), callback);
+    }
+
+    public Task searchPets(PetQuery query, CancellationSignal cancellationSignal, Callback<List<PetListItem>> callback) {
+        return execute(() -> dbHelper.searchPets(query, cancellationSignal), callback);
+    }
+
+    public Task insertPet(String name, String breed, long price, boolean available,
+                          String details, String imageUri, Callback<Long> callback) {
+        return executeWrite(() -> dbHelper.insertPet(name, breed, price, available, details, imageUri), callback);
+    }
+
+    public Task updatePet(Pet pet, Callback<Integer> callback) {
+        return executeWrite(() -> dbHelper.updatePet(pet), callback);
+    }
+
+    public Task insertPets(List<Pet> pets, Callback<BulkWriteResult> callback) {
+        return executeWrite(() -> dbHelper.insertPets(pets), callback);
+    }
+
+    public Task upsertPets(List<Pet> pets, Callback<BulkWriteResult> callback) {
+        return executeWrite(() -> dbHelper.upsertPets(pets), callback);
+    }
+
+    public Task deletePet(long petId, Callback<Integer> callback) {
+        return executeWrite(() -> dbHelper.deletePet(petId), callback);
+    }
+
+    public Task getSpeciesCounts(Callback<List<Species>> callback) {
+        return execute(dbHelper::getSpeciesCounts, callback);
+    }
+
+    public Task getStockItemsAfter(boolean lowStockOnly, StockItem anchor, int limit,
+                                   Callback<List<StockItem>> callback) {
+        return execute(() -> dbHelper.getStockItemsAfter(lowStockOnly, anchor, limit), callback);
+    }
+
+    public Task getStockItemsBefore(boolean lowStockOnly, StockItem anchor, int limit,
+                                    Callback<List<StockItem>> callback) {
+        return execute(() -> dbHelper.getStockItemsBefore(lowStockOnly, anchor, limit), callback);
+    }
+
+    public Task getStockItemsFrom(boolean lowStockOnly, StockItem anchor, int limit,
+                                  Callback<List<StockItem>> callback) {
+        return execute(() -> dbHelper.getStockItemsFrom(lowStockOnly, anchor, limit), callback);
+    }
+
+    public Task insertStockItem(String sku, String name, int quantity, int reorderLevel, Callback<Long> callback) {
+        return executeWrite(() -> dbHelper.insertStockItem(sku, name, quantity, reorderLevel), callback);
+    }
+
+    public Task updateStockItem(StockItem item, Callback<Integer> callback) {
+        return executeWrite(() -> dbHelper.updateStockItem(item), callback);
+    }
+
+    public Task adjustStockQuantity(long itemId, int delta, Callback<Integer> callback) {
+        return executeWrite(() -> dbHelper.adjustStockQuantity(itemId, delta), callback);
+    }
+
+    public Task deleteStockItem(long itemId, Callback<Integer> callback) {
+        return executeWrite(() -> dbHelper.deleteStockItem(itemId), callback);
+    }
+
+    public Task getDashboardStats(Callback<DashboardStats> callback) {
+        return execute(dbHelper::getDashboardStats, callback);
+    }
+
+    public Task getRecentActivity(int limit, Callback<List<ActivityEntry>> callback) {
+        return execute(() -> dbHelper.getRecentActivity(limit), callback);
+    }
+
+    public Task getMonthlyRevenue(int months, Callback<List<RevenueBucket>> callback) {
+        return execute(() -> dbHelper.getMonthlyRevenue(months), callback);
+    }
+
+    public Task getDailyRevenue(int days, Callback<List<RevenueBucket>> callback) {
+        return execute(() -> dbHelper.getDailyRevenue(days), callback);
+    }
+
+    public Task clearAllData(Callback<Void> callback) {
+        return executeWrite(() -> {
+            dbHelper.clearAllData();
+            return null;
+        }, callback);
+    }
+
+    /** Runs any DatabaseHelper read off the main thread, e.g. several dashboard queries at once. */
+    public <T> Task execute(Callable<T> work, Callback<T> callback) {
+        return submit(new Task(false), work, callback);
+    }
+
+    /** Like execute, but for work that changes data: cancelAll() drops its callback, never the write. */
+    public <T> Task executeWrite(Callable<T> work, Callback<T> callback) {
+        return submit(new Task(true), work, callback);
+    }
+
+    private <T> Task submit(Task task, Callable<T> work, Callback<T> callback) {
+        activeTasks.add(task);
+        try {
+            task.future = executor.submit(() -> {
+                if (task.isCancelled() && !task.write) return;
+                try {
+                    T result = work.call();
+                    deliver(task, () -> callback.onResult(result));
+                } catch (Exception e) {
+                    deliver(task, () -> callback.onError(e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            deliver(task, () -> callback.onError(e));
+        }
+        return task;
+    }
+
+    /** Calls onChanged on the main thread whenever a write touches one of the tables. Main thread only. */
+    public Subscription observeTables(Runnable onChanged, String... tables) {
+        Subscription subscription = new Subscription(dbHelper,
+                new HashSet<>(Arrays.asList(tables)), onChanged);
+        subscriptions.add(subscription);
+        dbHelper.addTableObserver(subscription);
+        return subscription;
+    }
+
+    /**
+     * Runs the query now and again after every write to one of the tables,
+     * delivering each result to callback on the main thread. Main thread only.
+     */
+    public <T> Subscription observe(Callable<T> query, Callback<T> callback, String... tables) {
+        LiveQuery<T> liveQuery = new LiveQuery<>(query, callback);
+        liveQuery.subscription = observeTables(liveQuery::invalidate, tables);
+        liveQuery.invalidate();
+        return liveQuery.subscription;
+    }
+
+    /** Stops delivering changes to this repository's subscriptions, e.g. while its screen is hidden. */
+    public void pauseObservers() {
+        for (Subscription subscription : subscriptions) {
+            subscription.pause();
+        }
+    }
+
+    /** Undoes pauseObservers(); subscriptions that missed a change run once now. */
+    public void resumeObservers() {
+        for (Subscription subscription : subscriptions) {
+            subscription.resume();
+        }
+    }
+
+    /**
+     * Cancels every job and subscription started through this repository;
+     * call from onDestroyView(). Queued writes still run, without callbacks.
+     */
+    public void cancelAll() {
+        synchronized (activeTasks) {
+            for (Task task : activeTasks) {
+                task.cancel();
+            }
+            activeTasks.clear();
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.cancel();
+        }
+        subscriptions.clear();
+    }
+
+    private void deliver(Task task, Runnable action) {
+        mainHandler.post(() -> {
+            activeTasks.remove(task);
+            if (!task.isCancelled()) {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,470 @@
+package com.example.petmanagement;
+
+import static com.example.petmanagement.DatabaseHelper.*;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+
+/**
+ * The pets database schema as plain SQL: tables, indexes and the triggers
+ * that maintain the search index, totals, sales rollups and logs.
+ * DatabaseHelper runs it on the device; it has no Android dependencies so
+ * {@code JdbcPetStore} can build the identical schema on the JVM.
+ */
+final class PetSchema {
+    /** Anything that can run a DDL statement, e.g. {@code SQLiteDatabase::execSQL}. */
+    interface Sql {
+        void execSQL(String sql);
+    }
+
+    // Create table SQL query. Prices, like every money column, are INTEGER
+    // minor units (see Money), so sums over them are exact.
+    private static final String CREATE_PETS_TABLE =
+            "CREATE TABLE " + TABLE_PETS + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_NAME + " TEXT, " +
+                    COLUMN_BREED + " TEXT, " +
+                    COLUMN_PRICE + " INTEGER, " +
+                    COLUMN_AVAILABLE + " INTEGER, " +
+                    COLUMN_DETAILS + " TEXT, " +
+                    COLUMN_IMAGE_URI + " TEXT, " +
+                    COLUMN_SPECIES_ID + " INTEGER REFERENCES " + TABLE_SPECIES + "(" + COLUMN_ID + "))";
+
+    // Species a pet is filed under, set from its breed on every write (see Species.classify)
+    private static final String CREATE_SPECIES_TABLE =
+            "CREATE TABLE " + TABLE_SPECIES + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY, " +
+                    COLUMN_NAME + " TEXT NOT NULL UNIQUE)";
+
+    // Full-text index over the searchable columns. It stores no copy of the
+    // text (content=pets), the triggers below keep it in step with the table.
+    private static final String CREATE_PETS_FTS5 =
+            "CREATE VIRTUAL TABLE " + TABLE_PETS_FTS + " USING fts5(" +
+                    COLUMN_NAME + ", " + COLUMN_BREED + ", " + COLUMN_DETAILS + ", " +
+                    "content='" + TABLE_PETS + "', content_rowid='" + COLUMN_ID + "', " +
+                    "prefix='2 3')";
+
+    // Older SQLite builds on many devices ship without FTS5
+    private static final String CREATE_PETS_FTS4 =
+            "CREATE VIRTUAL TABLE " + TABLE_PETS_FTS + " USING fts4(" +
+                    "content='" + TABLE_PETS + "', " +
+                    COLUMN_NAME + ", " + COLUMN_BREED + ", " + COLUMN_DETAILS + ", " +
+                    "prefix='2,3')";
+
+    private static final String FTS_COLUMNS_CHANGED =
+            "old." + COLUMN_NAME + " IS NOT new." + COLUMN_NAME +
+                    " OR old." + COLUMN_BREED + " IS NOT new." + COLUMN_BREED +
+                    " OR old." + COLUMN_DETAILS + " IS NOT new." + COLUMN_DETAILS;
+
+    // Keyset paging walks this index instead of sorting the whole table
+    static final String CREATE_NAME_INDEX =
+            "CREATE INDEX idx_pets_name ON " + TABLE_PETS + "(" + COLUMN_NAME + " COLLATE NOCASE)";
+
+    // Natural key used to spot a pet that is already in the catalog, e.g. on import
+    static final String CREATE_NATURAL_KEY_INDEX =
+            "CREATE INDEX idx_pets_natural_key ON " + TABLE_PETS + "(" +
+                    COLUMN_NAME + " COLLATE NOCASE, " + COLUMN_BREED + " COLLATE NOCASE)";
+
+    // Indexes for the price sort and for the availability filter combined
+    // with either sort; see DatabaseHelper.queryPage
+    private static final String CREATE_PRICE_INDEX =
+            "CREATE INDEX idx_pets_price ON " + TABLE_PETS + "(" + COLUMN_PRICE + ")";
+
+    private static final String CREATE_AVAILABLE_NAME_INDEX =
+            "CREATE INDEX idx_pets_available_name ON " + TABLE_PETS + "(" +
+                    COLUMN_AVAILABLE + ", " + COLUMN_NAME + " COLLATE NOCASE)";
+
+    private static final String CREATE_SPECIES_NAME_INDEX =
+            "CREATE INDEX idx_pets_species_name ON " + TABLE_PETS + "(" +
+                    COLUMN_SPECIES_ID + ", " + COLUMN_NAME + " COLLATE NOCASE)";
+
+    private static final String CREATE_SPECIES_PRICE_INDEX =
+            "CREATE INDEX idx_pets_species_price ON " + TABLE_PETS + "(" +
+                    COLUMN_SPECIES_ID + ", " + COLUMN_PRICE + ")";
+
+    private static final String CREATE_AVAILABLE_PRICE_INDEX =
+            "CREATE INDEX idx_pets_available_price ON " + TABLE_PETS + "(" +
+                    COLUMN_AVAILABLE + ", " + COLUMN_PRICE + ")";
+
+    // Supplies counted by quantity. The CHECK makes an oversized decrement
+    // fail instead of going negative.
+    private static final String CREATE_STOCK_ITEMS_TABLE =
+            "CREATE TABLE " + TABLE_STOCK_ITEMS + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_SKU + " TEXT NOT NULL UNIQUE COLLATE NOCASE, " +
+                    COLUMN_NAME + " TEXT NOT NULL, " +
+                    COLUMN_QUANTITY + " INTEGER NOT NULL DEFAULT 0 CHECK (" + COLUMN_QUANTITY + " >= 0), " +
+                    COLUMN_REORDER_LEVEL + " INTEGER NOT NULL DEFAULT 0 CHECK (" + COLUMN_REORDER_LEVEL + " >= 0))";
+
+    // Append-only log of items crossing their reorder level, in either
+    // direction. Written by the stock_changes_* triggers and consumed (then
+    // deleted) by takeNewLowStockItems, so it only holds unprocessed rows.
+    private static final String CREATE_STOCK_CHANGES_TABLE =
+            "CREATE TABLE " + TABLE_STOCK_CHANGES + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_ITEM_ID + " INTEGER NOT NULL, " +
+                    COLUMN_WAS_LOW + " INTEGER NOT NULL, " +
+                    COLUMN_IS_LOW + " INTEGER NOT NULL)";
+
+    // Append-only feed of pet events, written only by the activity_* triggers.
+    // Rows are never updated; _id order is time order.
+    private static final String CREATE_ACTIVITY_LOG_TABLE =
+            "CREATE TABLE " + TABLE_ACTIVITY_LOG + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_TYPE + " TEXT NOT NULL, " +
+                    COLUMN_PET_ID + " INTEGER, " +
+                    COLUMN_PET_NAME + " TEXT, " +
+                    COLUMN_AMOUNT + " INTEGER, " +
+                    COLUMN_CREATED_AT + " INTEGER NOT NULL)";
+
+    // Retention works like a ring buffer: every ACTIVITY_PRUNE_EVERY entries,
+    // one DELETE drops whatever is beyond the newest ACTIVITY_MAX_ENTRIES or
+    // older than ACTIVITY_MAX_AGE_MS, so the log never outgrows a few pages.
+    private static final int ACTIVITY_MAX_ENTRIES = 500;
+
+    private static final int ACTIVITY_PRUNE_EVERY = 100;
+
+    private static final long ACTIVITY_MAX_AGE_MS = 90L * 24 * 60 * 60 * 1000;
+
+    // One row of running totals for the dashboard, kept current by the
+    // pets_stats_* triggers so reading it never touches the pets table.
+    private static final String CREATE_PET_STATS_TABLE =
+            "CREATE TABLE " + TABLE_PET_STATS + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY CHECK (" + COLUMN_ID + " = 1), " +
+                    COLUMN_TOTAL_COUNT + " INTEGER NOT NULL, " +
+                    COLUMN_AVAILABLE_COUNT + " INTEGER NOT NULL, " +
+                    COLUMN_SOLD_COUNT + " INTEGER NOT NULL, " +
+                    COLUMN_TOTAL_REVENUE + " INTEGER NOT NULL)";
+
+    // One row per sale, written by the pets_sale_* triggers whenever a pet
+    // becomes sold. The price is copied so later edits don't rewrite history.
+    private static final String CREATE_SALES_TABLE =
+            "CREATE TABLE " + TABLE_SALES + " (" +
+                    COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    COLUMN_PET_ID + " INTEGER REFERENCES " + TABLE_PETS + "(" + COLUMN_ID + ") ON DELETE SET NULL, " +
+                    COLUMN_PRICE + " INTEGER NOT NULL, " +
+                    COLUMN_SOLD_AT + " INTEGER NOT NULL)";
+
+    // period is "yyyy-MM-dd" for daily rows and "yyyy-MM" for monthly rows, in local time
+    private static final String DAY_FORMAT = "%Y-%m-%d";
+
+    private static final String MONTH_FORMAT = "%Y-%m";
+
+    static final String NOW_MILLIS = "CAST(strftime('%s', 'now') AS INTEGER) * 1000";
+
+    private PetSchema() {
+    }
+
+    /** Creates the current schema in an empty database; returns whether search uses FTS5. */
+    static boolean create(Sql db) {
+        db.execSQL(CREATE_PETS_TABLE);
+        createSpeciesTable(db);
+        createSpeciesIndexes(db);
+        boolean fts5 = createSearchIndex(db);
+        db.execSQL(CREATE_NAME_INDEX);
+        createStatsTable(db);
+        createSalesTables(db);
+        db.execSQL(CREATE_NATURAL_KEY_INDEX);
+        createFilterIndexes(db);
+        createStockTable(db);
+        createStockChangeLog(db);
+        createActivityLog(db);
+        return fts5;
+    }
+
+    static void createActivityLog(Sql db) {
+        db.execSQL(CREATE_ACTIVITY_LOG_TABLE);
+        // Used by the age half of pruning
+        db.execSQL("CREATE INDEX idx_activity_created_at ON " + TABLE_ACTIVITY_LOG + "(" + COLUMN_CREATED_AT + ")");
+
+        db.execSQL("CREATE TRIGGER activity_pets_ai AFTER INSERT ON " + TABLE_PETS + " BEGIN " +
+                logActivity("'" + ActivityEntry.ADDED + "'", "new") + " END");
+        db.execSQL("CREATE TRIGGER activity_pets_au AFTER UPDATE ON " + TABLE_PETS +
+                " WHEN " + FTS_COLUMNS_CHANGED +
+                " OR old." + COLUMN_PRICE + " IS NOT new." + COLUMN_PRICE +
+                " OR old." + COLUMN_IMAGE_URI + " IS NOT new." + COLUMN_IMAGE_URI + " BEGIN " +
+                logActivity("'" + ActivityEntry.EDITED + "'", "new") + " END");
+        db.execSQL("CREATE TRIGGER activity_pets_ad AFTER DELETE ON " + TABLE_PETS + " BEGIN " +
+                logActivity("'" + ActivityEntry.DELETED + "'", "old") + " END");
+        // Sales come from the pets_sale_* triggers, so this also covers bulk writes and imports
+        db.execSQL("CREATE TRIGGER activity_sales_ai AFTER INSERT ON " + TABLE_SALES + " BEGIN " +
+                "INSERT INTO " + TABLE_ACTIVITY_LOG + "(" + COLUMN_TYPE + ", " + COLUMN_PET_ID + ", " +
+                COLUMN_PET_NAME + ", " + COLUMN_AMOUNT + ", " + COLUMN_CREATED_AT + ") VALUES ('" +
+                ActivityEntry.SOLD + "', new." + COLUMN_PET_ID + ", (SELECT " + COLUMN_NAME + " FROM " +
+                TABLE_PETS + " WHERE " + COLUMN_ID + " = new." + COLUMN_PET_ID + "), new." + COLUMN_PRICE +
+                ", new." + COLUMN_SOLD_AT + "); END");
+
+        db.execSQL("CREATE TRIGGER activity_log_prune AFTER INSERT ON " + TABLE_ACTIVITY_LOG +
+                " WHEN new." + COLUMN_ID + " % " + ACTIVITY_PRUNE_EVERY + " = 0 BEGIN " +
+                "DELETE FROM " + TABLE_ACTIVITY_LOG + " WHERE " +
+                COLUMN_ID + " <= new." + COLUMN_ID + " - " + ACTIVITY_MAX_ENTRIES +
+                " OR " + COLUMN_CREATED_AT + " < new." + COLUMN_CREATED_AT + " - " + ACTIVITY_MAX_AGE_MS + "; END");
+    }
+
+    private static String logActivity(String type, String row) {
+        return "INSERT INTO " + TABLE_ACTIVITY_LOG + "(" + COLUMN_TYPE + ", " + COLUMN_PET_ID + ", " +
+                COLUMN_PET_NAME + ", " + COLUMN_AMOUNT + ", " + COLUMN_CREATED_AT + ") VALUES (" + type + ", " +
+                row + "." + COLUMN_ID + ", " + row + "." + COLUMN_NAME + ", " + row + "." + COLUMN_PRICE + ", " +
+                NOW_MILLIS + ");";
+    }
+
+    static void createStockChangeLog(Sql db) {
+        db.execSQL(CREATE_STOCK_CHANGES_TABLE);
+        db.execSQL("CREATE TRIGGER stock_changes_ai AFTER INSERT ON " + TABLE_STOCK_ITEMS +
+                " WHEN " + lowStock("new") + " BEGIN " +
+                "INSERT INTO " + TABLE_STOCK_CHANGES + "(" + COLUMN_ITEM_ID + ", " + COLUMN_WAS_LOW + ", " +
+                COLUMN_IS_LOW + ") VALUES (new." + COLUMN_ID + ", 0, 1); END");
+        db.execSQL("CREATE TRIGGER stock_changes_au AFTER UPDATE OF " + COLUMN_QUANTITY + ", " +
+                COLUMN_REORDER_LEVEL + " ON " + TABLE_STOCK_ITEMS +
+                " WHEN (" + lowStock("old") + ") != (" + lowStock("new") + ") BEGIN " +
+                "INSERT INTO " + TABLE_STOCK_CHANGES + "(" + COLUMN_ITEM_ID + ", " + COLUMN_WAS_LOW + ", " +
+                COLUMN_IS_LOW + ") VALUES (new." + COLUMN_ID + ", " + lowStock("old") + ", " +
+                lowStock("new") + "); END");
+    }
+
+    /**
+     * Version 13: turns the REAL money columns of pets, sales, the rollups,
+     * pet_stats and activity_log into INTEGER minor units. SQLite can't change
+     * a column's type, so the tables are copied aside, recreated and refilled.
+     * Refilling pets through the new triggers rebuilds the search index and
+     * totals, refilling sales rebuilds the rollups; the sales and log entries
+     * those triggers make up on the way are replaced by the real ones.
+     */
+    static boolean migrateToMinorUnits(Sql db) {
+        for (String table : new String[]{TABLE_PETS, TABLE_SALES, TABLE_ACTIVITY_LOG}) {
+            db.execSQL("CREATE TEMP TABLE " + table + "_old AS SELECT * FROM " + table);
+        }
+        db.execSQL("CREATE TEMP TABLE sequence_old AS SELECT name, seq FROM sqlite_sequence");
+        // Dropping a table drops its indexes and triggers with it
+        for (String table : new String[]{TABLE_SALES, TABLE_SALES_DAILY, TABLE_SALES_MONTHLY,
+                TABLE_PETS_FTS, TABLE_PETS, TABLE_PET_STATS, TABLE_ACTIVITY_LOG}) {
+            db.execSQL("DROP TABLE " + table);
+        }
+
+        db.execSQL(CREATE_PETS_TABLE);
+        createSpeciesIndexes(db);
+        boolean fts5 = createSearchIndex(db);
+        db.execSQL(CREATE_NAME_INDEX);
+        createStatsTable(db);
+        createSalesTables(db);
+        db.execSQL(CREATE_NATURAL_KEY_INDEX);
+        createFilterIndexes(db);
+        createActivityLog(db);
+
+        db.execSQL("INSERT INTO " + TABLE_PETS + "(" + COLUMN_ID + ", " + COLUMN_NAME + ", " + COLUMN_BREED + ", " +
+                COLUMN_PRICE + ", " + COLUMN_AVAILABLE + ", " + COLUMN_DETAILS + ", " + COLUMN_IMAGE_URI + ", " +
+                COLUMN_SPECIES_ID + ") SELECT " + COLUMN_ID + ", " + COLUMN_NAME + ", " + COLUMN_BREED + ", " +
+                toMinorUnits(COLUMN_PRICE) + ", " + COLUMN_AVAILABLE + ", " + COLUMN_DETAILS + ", " +
+                COLUMN_IMAGE_URI + ", " + COLUMN_SPECIES_ID + " FROM " + TABLE_PETS + "_old ORDER BY " + COLUMN_ID);
+        db.execSQL("DELETE FROM " + TABLE_SALES);
+        db.execSQL("DELETE FROM " + TABLE_SALES_DAILY);
+        db.execSQL("DELETE FROM " + TABLE_SALES_MONTHLY);
+        db.execSQL("INSERT INTO " + TABLE_SALES + " SELECT " + COLUMN_ID + ", " + COLUMN_PET_ID + ", " +
+                toMinorUnits(COLUMN_PRICE) + ", " + COLUMN_SOLD_AT + " FROM " + TABLE_SALES + "_old ORDER BY " +
+                COLUMN_ID);
+        db.execSQL("DELETE FROM " + TABLE_ACTIVITY_LOG);
+        db.execSQL("INSERT INTO " + TABLE_ACTIVITY_LOG + " SELECT " + COLUMN_ID + ", " + COLUMN_TYPE + ", " +
+                COLUMN_PET_ID + ", " + COLUMN_PET_NAME + ", " + toMinorUnits(COLUMN_AMOUNT) + ", " +
+                COLUMN_CREATED_AT + " FROM " + TABLE_ACTIVITY_LOG + "_old ORDER BY " + COLUMN_ID);
+
+        // Keep AUTOINCREMENT from handing out ids of rows deleted before the upgrade
+        db.execSQL("UPDATE sqlite_sequence SET seq = (SELECT o.seq FROM sequence_old o" +
+                " WHERE o.name = sqlite_sequence.name) WHERE name IN (SELECT name FROM sequence_old)" +
+                " AND seq < (SELECT o.seq FROM sequence_old o WHERE o.name = sqlite_sequence.name)");
+        for (String table : new String[]{TABLE_PETS + "_old", TABLE_SALES + "_old", TABLE_ACTIVITY_LOG + "_old",
+                "sequence_old"}) {
+            db.execSQL("DROP TABLE temp." + table);
+        }
+        return fts5;
+    }
+
+    private static String toMinorUnits(String column) {
+        return "CAST(ROUND(" + column + " * " + Money.MINOR_PER_MAJOR + ") AS INTEGER)";
+    }
+
+    // LOW_STOCK against a table alias, e.g. "old" or "new" in a trigger
+    static String lowStock(String alias) {
+        return alias + "." + COLUMN_QUANTITY + " <= " + alias + "." + COLUMN_REORDER_LEVEL;
+    }
+
+    static void createStockTable(Sql db) {
+        db.execSQL(CREATE_STOCK_ITEMS_TABLE);
+        db.execSQL("CREATE INDEX idx_stock_name ON " + TABLE_STOCK_ITEMS + "(" + COLUMN_NAME + " COLLATE NOCASE)");
+        // Partial index holding only the items that need reordering, so the
+        // low-stock list and count never look at well-stocked rows
+        db.execSQL("CREATE INDEX idx_stock_low ON " + TABLE_STOCK_ITEMS + "(" + COLUMN_NAME + " COLLATE NOCASE)" +
+                " WHERE " + LOW_STOCK);
+    }
+
+    static void createSpeciesTable(Sql db) {
+        db.execSQL(CREATE_SPECIES_TABLE);
+        db.execSQL("INSERT INTO " + TABLE_SPECIES + "(" + COLUMN_ID + ", " + COLUMN_NAME + ") VALUES (" +
+                Species.DOG + ", 'Dog'), (" + Species.CAT + ", 'Cat'), (" + Species.OTHER + ", 'Other')");
+    }
+
+    static void createSpeciesIndexes(Sql db) {
+        db.execSQL(CREATE_SPECIES_NAME_INDEX);
+        db.execSQL(CREATE_SPECIES_PRICE_INDEX);
+    }
+
+    static void createFilterIndexes(Sql db) {
+        db.execSQL(CREATE_PRICE_INDEX);
+        db.execSQL(CREATE_AVAILABLE_NAME_INDEX);
+        db.execSQL(CREATE_AVAILABLE_PRICE_INDEX);
+    }
+
+
+    static void createSalesTables(Sql db) {
+        db.execSQL(CREATE_SALES_TABLE);
+        db.execSQL("CREATE INDEX idx_sales_pet ON " + TABLE_SALES + "(" + COLUMN_PET_ID + ")");
+        db.execSQL("CREATE INDEX idx_sales_sold_at ON " + TABLE_SALES + "(" + COLUMN_SOLD_AT + ")");
+        for (String rollup : new String[]{TABLE_SALES_DAILY, TABLE_SALES_MONTHLY}) {
+            db.execSQL("CREATE TABLE " + rollup + " (" +
+                    COLUMN_PERIOD + " TEXT PRIMARY KEY, " +
+                    COLUMN_REVENUE + " INTEGER NOT NULL, " +
+                    COLUMN_SALE_COUNT + " INTEGER NOT NULL) WITHOUT ROWID");
+        }
+
+        // Every sale lands in its day and month bucket as it is recorded
+        db.execSQL("CREATE TRIGGER sales_rollup_ai AFTER INSERT ON " + TABLE_SALES + " BEGIN " +
+                rollupDelta(TABLE_SALES_DAILY, DAY_FORMAT, "+") +
+                rollupDelta(TABLE_SALES_MONTHLY, MONTH_FORMAT, "+") + " END");
+        db.execSQL("CREATE TRIGGER sales_rollup_ad AFTER DELETE ON " + TABLE_SALES + " BEGIN " +
+                rollupDelta(TABLE_SALES_DAILY, DAY_FORMAT, "-") +
+                rollupDelta(TABLE_SALES_MONTHLY, MONTH_FORMAT, "-") + " END");
+
+        String insertSale = "INSERT INTO " + TABLE_SALES + "(" + COLUMN_PET_ID + ", " + COLUMN_PRICE + ", " +
+                COLUMN_SOLD_AT + ") VALUES (new." + COLUMN_ID + ", IFNULL(new." + COLUMN_PRICE + ", 0), " +
+                NOW_MILLIS + ");";
+        db.execSQL("CREATE TRIGGER pets_sale_ai AFTER INSERT ON " + TABLE_PETS +
+                " WHEN new." + COLUMN_AVAILABLE + " = 0 BEGIN " + insertSale + " END");
+        db.execSQL("CREATE TRIGGER pets_sale_au AFTER UPDATE ON " + TABLE_PETS +
+                " WHEN new." + COLUMN_AVAILABLE + " = 0 AND old." + COLUMN_AVAILABLE + " IS NOT 0" +
+                " BEGIN " + insertSale + " END");
+        // Marking a sold pet available again undoes its latest sale
+        db.execSQL("CREATE TRIGGER pets_sale_undo AFTER UPDATE ON " + TABLE_PETS +
+                " WHEN old." + COLUMN_AVAILABLE + " = 0 AND new." + COLUMN_AVAILABLE + " IS NOT 0" +
+                " BEGIN DELETE FROM " + TABLE_SALES + " WHERE " + COLUMN_ID + " = (SELECT MAX(" + COLUMN_ID +
+                ") FROM " + TABLE_SALES + " WHERE " + COLUMN_PET_ID + " = old." + COLUMN_ID + "); END");
+    }
+
+    private static String rollupDelta(String table, String format, String op) {
+        String row = op.equals("+") ? "new" : "old";
+        String period = "strftime('" + format + "', " + row + "." + COLUMN_SOLD_AT +
+                " / 1000, 'unixepoch', 'localtime')";
+        return "INSERT OR IGNORE INTO " + table + " VALUES (" + period + ", 0, 0); " +
+                "UPDATE " + table + " SET " +
+                COLUMN_REVENUE + " = " + COLUMN_REVENUE + " " + op + " " + row + "." + COLUMN_PRICE + ", " +
+                COLUMN_SALE_COUNT + " = " + COLUMN_SALE_COUNT + " " + op + " 1" +
+                " WHERE " + COLUMN_PERIOD + " = " + period + "; ";
+    }
+
+    static void createStatsTable(Sql db) {
+        db.execSQL(CREATE_PET_STATS_TABLE);
+        // Seeds the row from whatever is already in pets
+        db.execSQL("INSERT INTO " + TABLE_PET_STATS + " SELECT 1, " +
+                "COUNT(*), " +
+                "TOTAL(" + COLUMN_AVAILABLE + " = 1), " +
+                "TOTAL(" + COLUMN_AVAILABLE + " = 0), " +
+                // SUM of integers stays an exact integer, where TOTAL would give a float
+                "IFNULL(SUM(CASE WHEN " + COLUMN_AVAILABLE + " = 0 THEN " + COLUMN_PRICE + " END), 0) " +
+                "FROM " + TABLE_PETS);
+
+        db.execSQL("CREATE TRIGGER pets_stats_ai AFTER INSERT ON " + TABLE_PETS +
+                " BEGIN " + statsDelta("+", "new") + " END");
+        db.execSQL("CREATE TRIGGER pets_stats_ad AFTER DELETE ON " + TABLE_PETS +
+                " BEGIN " + statsDelta("-", "old") + " END");
+        db.execSQL("CREATE TRIGGER pets_stats_au AFTER UPDATE ON " + TABLE_PETS +
+                " WHEN old." + COLUMN_AVAILABLE + " IS NOT new." + COLUMN_AVAILABLE +
+                " OR old." + COLUMN_PRICE + " IS NOT new." + COLUMN_PRICE +
+                " BEGIN " + statsDelta("-", "old") + " " + statsDelta("+", "new") + " END");
+    }
+
+    // Adds (op "+") or removes (op "-") one row's contribution to the totals
+    private static String statsDelta(String op, String row) {
+        String available = row + "." + COLUMN_AVAILABLE;
+        return "UPDATE " + TABLE_PET_STATS + " SET " +
+                COLUMN_TOTAL_COUNT + " = " + COLUMN_TOTAL_COUNT + " " + op + " 1, " +
+                COLUMN_AVAILABLE_COUNT + " = " + COLUMN_AVAILABLE_COUNT + " " + op +
+                " (CASE WHEN " + available + " = 1 THEN 1 ELSE 0 END), " +
+                COLUMN_SOLD_COUNT + " = " + COLUMN_SOLD_COUNT + " " + op +
+                " (CASE WHEN " + available + " = 0 THEN 1 ELSE 0 END), " +
+                COLUMN_TOTAL_REVENUE + " = " + COLUMN_TOTAL_REVENUE + " " + op +
+                " (CASE WHEN " + available + " = 0 THEN IFNULL(" + row + "." + COLUMN_PRICE + ", 0) ELSE 0 END)" +
+                " WHERE " + COLUMN_ID + " = 1;";
+    }
+
+    /** Creates pets_fts and its triggers; returns whether it is FTS5. */
+    static boolean createSearchIndex(Sql db) {
+        String fts = TABLE_PETS_FTS;
+        String row = "(" + COLUMN_NAME + ", " + COLUMN_BREED + ", " + COLUMN_DETAILS + ")";
+        String newValues = "(new." + COLUMN_ID + ", new." + COLUMN_NAME + ", new." + COLUMN_BREED +
+                ", new." + COLUMN_DETAILS + ")";
+
+        boolean fts5;
+        try {
+            db.execSQL(CREATE_PETS_FTS5);
+            fts5 = true;
+        } catch (RuntimeException e) {
+            // SQLiteException on a device without FTS5
+            db.execSQL(CREATE_PETS_FTS4);
+            fts5 = false;
+        }
+
+        if (fts5) {
+            String oldValues = "('delete', old." + COLUMN_ID + ", old." + COLUMN_NAME +
+                    ", old." + COLUMN_BREED + ", old." + COLUMN_DETAILS + ")";
+            String deleteOld = "INSERT INTO " + fts + "(" + fts + ", rowid, " + row.substring(1) +
+                    " VALUES" + oldValues + "; ";
+            String insertNew = "INSERT INTO " + fts + "(rowid, " + row.substring(1) +
+                    " VALUES" + newValues + "; ";
+
+            db.execSQL("CREATE TRIGGER pets_fts_ai AFTER INSERT ON " + TABLE_PETS +
+                    " BEGIN " + insertNew + "END");
+            db.execSQL("CREATE TRIGGER pets_fts_ad AFTER DELETE ON " + TABLE_PETS +
+                    " BEGIN " + deleteOld + "END");
+            db.execSQL("CREATE TRIGGER pets_fts_au AFTER UPDATE ON " + TABLE_PETS +
+                    " WHEN " + FTS_COLUMNS_CHANGED + " BEGIN " + deleteOld + insertNew + "END");
+        } else {
+            String deleteOld = "DELETE FROM " + fts + " WHERE docid = old." + COLUMN_ID + "; ";
+            String insertNew = "INSERT INTO " + fts + "(docid, " + row.substring(1) +
+                    " VALUES" + newValues + "; ";
+
+            // External content FTS4 must drop the old terms before the row changes
+            db.execSQL("CREATE TRIGGER pets_fts_bu BEFORE UPDATE ON " + TABLE_PETS +
+                    " WHEN " + FTS_COLUMNS_CHANGED + " BEGIN " + deleteOld + "END");
+            db.execSQL("CREATE TRIGGER pets_fts_bd BEFORE DELETE ON " + TABLE_PETS +
+                    " BEGIN " + deleteOld + "END");
+            db.execSQL("CREATE TRIGGER pets_fts_au AFTER UPDATE ON " + TABLE_PETS +
+                    " WHEN " + FTS_COLUMNS_CHANGED + " BEGIN " + insertNew + "END");
+            db.execSQL("CREATE TRIGGER pets_fts_ai AFTER INSERT ON " + TABLE_PETS +
+                    " BEGIN " + insertNew + "END");
+        }
+        return fts5;
+    }
+
+    /**
+     * Turns free text into a prefix MATCH expression, e.g. "gold ret" becomes
+     * "gold* ret*". Punctuation is dropped so user input can never form FTS
+     * operators; returns null when nothing searchable is left.
+     */
+    static String toMatchQuery(String query) {
+        if (query == null) return null;
+        StringBuilder match = new StringBuilder();
+        for (String token : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            match.append(token).append('*');
+        }
+        return match.length() > 0 ? match.toString() : null;
+    }
+
+    // Same "yyyy-MM" key the rollup triggers write, monthsAgo months back from now
+    static String monthKey(int monthsAgo) {
+        Calendar month = Calendar.getInstance();
+        month.set(Calendar.DAY_OF_MONTH, 1);
+        month.add(Calendar.MONTH, -monthsAgo);
+        return new SimpleDateFormat("yyyy-MM", Locale.US).format(month.getTime());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.petmanagement;
+
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import java.util.List;
+
+/**
+ * Turns raw search box keystrokes into at most one running query. Input is
+ * debounced, a newer query cancels the one still running, and results that
+ * arrive for anything but the latest query are dropped. Main thread only.
+ */
+public class PetSearchPipeline {
+    private static final long DEBOUNCE_MS = 300;
+
+    public interface Listener {
+        void onResults(String query, List<PetListItem> pets);
+
+        void onError(String query, Exception e);
+    }
+
+    private final PetRepository repository;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable dispatchRunnable = this::dispatch;
+
+    private PetQuery pendingQuery = PetQuery.ALL;
+    private long generation;
+    private PetRepository.Task inFlightTask;
+    private CancellationSignal inFlightSignal;
+
+    public PetSearchPipeline(PetRepository repository, Listener listener) {
+        this.repository = repository;
+        this.listener = listener;
+    }
+
+    public void submit(PetQuery query) {
+        pendingQuery = query;
+        // Anything already running is now stale
+        generation++;
+        cancelInFlight();
+        handler.removeCallbacks(dispatchRunnable);
+        handler.postDelayed(dispatchRunnable, DEBOUNCE_MS);
+    }
+
+    /** Runs the current query again right away, e.g. after the pets table changed. */
+    public void refresh() {
+        if (!pendingQuery.hasText()) return;
+        generation++;
+        cancelInFlight();
+        handler.removeCallbacks(dispatchRunnable);
+        dispatch();
+    }
+
+    public void cancel() {
+        generation++;
+        handler.removeCallbacks(dispatchRunnable);
+        cancelInFlight();
+    }
+
+    private void dispatch() {
+        final long requestGeneration = generation;
+        final PetQuery query = pendingQuery;
+        CancellationSignal signal = new CancellationSignal();
+        inFlightSignal = signal;
+        inFlightTask = repository.searchPets(query, signal, new PetRepository.Callback<List<PetListItem>>() {
+            @Override
+            public void onResult(List<PetListItem> pets) {
+                if (requestGeneration != generation) return;
+                clearInFlight();
+                listener.onResults(query.getText(), pets);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (requestGeneration != generation) return;
+                clearInFlight();
+                listener.onError(query.getText(), e);
+            }
+        });
+    }
+
+    private void cancelInFlight() {
+        if (inFlightSignal != null) {
+            inFlightSignal.cancel();
+        }
+        if (inFlightTask != null) {
+            inFlightTask.cancel();
+        }
+        clearInFlight();
+    }
+
+    private void clearInFlight() {
+        inFlightSignal = null;
+        inFlightTask = null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.petmanagement;
+
+import java.util.List;
+
+/**
+ * The pet catalog operations the app's screens are built on. DatabaseHelper
+ * is the implementation on the device; {@code JdbcPetStore} runs the same
+ * schema and SQL on the JVM so the data layer can be benchmarked without one.
+ */
+public interface PetStore {
+    long insertPet(String name, String breed, long price, boolean available, String details, String imageUri);
+
+    BulkWriteResult insertPets(Iterable<Pet> pets);
+
+    int updatePet(Pet pet);
+
+    int deletePet(long petId);
+
+    Pet getPetById(long petId);
+
+    List<Pet> getAllPets();
+
+    List<PetListItem> searchPets(String query);
+
+    DashboardStats getDashboardStats();
+
+    List<RevenueBucket> getMonthlyRevenue(int months);
+
+    void clearAllData();
+}
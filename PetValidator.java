@@ -0,0 +1,26 @@
+package com.example.petmanagement;
+
+/** Rules shared by the pet form and the importer, so both accept the same rows. */
+public final class PetValidator {
+    public static final String MISSING_FIELDS = "Please fill in all required fields";
+    public static final String INVALID_PRICE = "Invalid price format";
+
+    private PetValidator() {}
+
+    /** Returns null if the values are acceptable, otherwise the message to show. */
+    public static String validate(String name, String breed, String price) {
+        if (isBlank(name) || isBlank(breed) || isBlank(price)) {
+            return MISSING_FIELDS;
+        }
+        try {
+            Money.parse(price);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return INVALID_PRICE;
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -39,13 +39,19 @@ public class PetsFragment extends Fragment {
     private MaterialButton filterButton;
     private MaterialButton sortButton;
     private PetAdapter petAdapter;
-    private List<Pet> petsList;
+    private List<PetListItem> petsList;
     private DatabaseHelper dbHelper;
+    private PetRepository repository;
+    private PetSearchPipeline searchPipeline;
+    private PetPager petPager;
+    // Filter and sort picked in the dialogs; the search text comes from searchInput
+    private PetQuery petQuery = PetQuery.ALL;
 
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         try {
-            dbHelper = new DatabaseHelper(requireContext());
+            dbHelper = DatabaseHelper.getInstance(requireContext());
+            repository = new PetRepository(dbHelper);
             View view = inflater.inflate(R.layout.fragment_pets, container, false);
             initializeViews(view);
             checkPermissions();
@@ -60,6 +66,32 @@ public class PetsFragment extends Fragment {
         }
     }
 
+    // Hidden tabs stay alive; catch up on changes once when shown again
+    @Override
+    public void onHiddenChanged(boolean hidden) {
+        super.onHiddenChanged(hidden);
+        if (repository == null) return;
+        if (hidden) {
+            repository.pauseObservers();
+        } else {
+            repository.resumeObservers();
+        }
+    }
+
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (searchPipeline != null) {
+            searchPipeline.cancel();
+        }
+        if (petPager != null) {
+            petPager.detach();
+        }
+        if (repository != null) {
+            repository.cancelAll();
+        }
+    }
+
     private void initializeViews(View view) {
         petsRecyclerView = view.findViewById(R.id.petsRecyclerView);
         searchInput = view.findViewById(R.id.searchInput);
@@ -119,42 +151,81 @@ public class PetsFragment extends Fragment {
     }
 
     private void setupRecyclerView() {
-        try {
-            if (petsRecyclerView == null || getContext() == null) return;
-            
-            petsRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-            petsList = dbHelper.getAllPets();
-            
-            if (petAdapter == null) {
-                petAdapter = new PetAdapter(petsList, new PetAdapter.PetClickListener() {
-                    @Override
-                    public void onPetClick(Pet pet) {
-                        showEditPetDialog(pet);
-                    }
+        if (petsRecyclerView == null || getContext() == null) return;
 
-                    @Override
-                    public void onPetLongClick(Pet pet) {
-                        deletePet(pet);
-                    }
-                });
-                petsRecyclerView.setAdapter(petAdapter);
-            } else {
-                petAdapter.updateList(petsList);
+        petsRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        petAdapter = new PetAdapter(new ArrayList<>(), new PetAdapter.PetClickListener() {
+            @Override
+            public void onPetClick(PetListItem pet) {
+                openPet(pet);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(getContext(), "Error loading pets: " + e.getMessage(), Toast.LENGTH_LONG).show();
+
+            @Override
+            public void onPetLongClick(PetListItem pet) {
+                deletePet(pet);
+            }
+        });
+        petsRecyclerView.setAdapter(petAdapter);
+
+        petPager = new PetPager(repository, petAdapter);
+        petPager.attach(petsRecyclerView);
+        petPager.reload();
+
+        // Saves, deletes and imports (from any screen) refresh the list through here
+        repository.observeTables(this::onPetsChanged, DatabaseHelper.TABLE_PETS);
+    }
+
+    private void onPetsChanged() {
+        if (currentQuery().isEmpty()) {
+            petPager.refresh();
+        } else {
+            searchPipeline.refresh();
+        }
+    }
+
+    private String currentQuery() {
+        return searchInput.getText() != null ? searchInput.getText().toString().trim() : "";
+    }
+
+    // Re-runs whatever the list is currently showing: the paged catalog or a search
+    private void loadPets() {
+        PetQuery query = petQuery.withText(currentQuery());
+        if (!query.hasText()) {
+            searchPipeline.cancel();
+            petPager.reload(query);
+        } else {
+            searchPipeline.submit(query);
         }
     }
 
     private void setupSearch() {
+        searchPipeline = new PetSearchPipeline(repository, new PetSearchPipeline.Listener() {
+            @Override
+            public void onResults(String query, List<PetListItem> pets) {
+                petPager.disable();
+                petsList = pets;
+                petAdapter.updateList(petsList);
+            }
+
+            @Override
+            public void onError(String query, Exception e) {
+                e.printStackTrace();
+                Toast.makeText(getContext(), "Error searching pets: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
+
         searchInput.addTextChangedListener(new TextWatcher() {
             @Override
             public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                filterPets(s.toString());
+                if (s.toString().trim().isEmpty()) {
+                    // Back to the full catalog, which is paged rather than searched
+                    loadPets();
+                } else {
+                    searchPipeline.submit(petQuery.withText(s.toString()));
+                }
             }
 
             @Override
@@ -167,27 +238,67 @@ public class PetsFragment extends Fragment {
         sortButton.setOnClickListener(v -> showSortDialog());
     }
 
-    private void filterPets(String query) {
-        petsList = dbHelper.searchPets(query);
-        petAdapter.updateList(petsList);
+    // Filtering and sorting run in SQL, so the list keeps paging over the filtered rows
+    private void showFilterDialog() {
+        repository.getSpeciesCounts(new PetRepository.Callback<List<Species>>() {
+            @Override
+            public void onResult(List<Species> species) {
+                showFilterDialog(species);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                showFilterDialog(new ArrayList<>());
+            }
+        });
     }
 
-    private void showFilterDialog() {
+    private void showFilterDialog(List<Species> speciesCounts) {
         String[] filters = {"All", "Available", "Sold", "Dogs", "Cats", "Others"};
+        long[] speciesIds = {Species.DOG, Species.CAT, Species.OTHER};
+        for (Species species : speciesCounts) {
+            for (int i = 0; i < speciesIds.length; i++) {
+                if (species.getId() == speciesIds[i]) {
+                    filters[3 + i] += " (" + species.getPetCount() + ")";
+                }
+            }
+        }
+
+        int checked = petQuery.getAvailability().ordinal();
+        for (int i = 0; i < speciesIds.length; i++) {
+            if (petQuery.getSpeciesId() == speciesIds[i]) {
+                checked = 3 + i;
+            }
+        }
+
         new MaterialAlertDialogBuilder(getContext())
             .setTitle("Filter Pets")
-            .setItems(filters, (dialog, which) -> {
-                // Implement filter logic
+            .setSingleChoiceItems(filters, checked, (dialog, which) -> {
+                dialog.dismiss();
+                // One filter at a time, as the dialog offers them
+                if (which < 3) {
+                    petQuery = petQuery.withSpecies(PetQuery.ANY_SPECIES)
+                        .withAvailability(PetQuery.Availability.values()[which]);
+                } else {
+                    petQuery = petQuery.withAvailability(PetQuery.Availability.ALL)
+                        .withSpecies(speciesIds[which - 3]);
+                }
+                loadPets();
             })
             .show();
     }
 
     private void showSortDialog() {
         String[] sortOptions = {"Name (A-Z)", "Name (Z-A)", "Price (Low-High)", "Price (High-Low)"};
+        PetQuery.Sort[] values = PetQuery.Sort.values();
+        int checked = petQuery.getSort() != null ? petQuery.getSort().ordinal() : -1;
         new MaterialAlertDialogBuilder(getContext())
             .setTitle("Sort Pets")
-            .setItems(sortOptions, (dialog, which) -> {
-                // Implement sorting logic
+            .setSingleChoiceItems(sortOptions, checked, (dialog, which) -> {
+                dialog.dismiss();
+                petQuery = petQuery.withSort(values[which]);
+                loadPets();
             })
             .show();
     }
@@ -208,12 +319,7 @@ public class PetsFragment extends Fragment {
 
         dialog.setOnShowListener(dialogInterface -> {
             Button positiveButton = dialog.getButton(AlertDialog.BUTTON_POSITIVE);
-            positiveButton.setOnClickListener(view -> {
-                if (savePet(dialogView, -1)) {
-                    dialog.dismiss();
-                    setupRecyclerView(); // Refresh list
-                }
-            });
+            positiveButton.setOnClickListener(view -> savePet(dialogView, -1, dialog::dismiss));
         });
 
         dialog.show();
@@ -240,7 +346,11 @@ public class PetsFragment extends Fragment {
         }
     }
 
-    private boolean savePet(View dialogView, long petId) {
+    /**
+     * Validates the form and writes it in the background. Returns false if the
+     * input was rejected; onSaved runs on the main thread once the write succeeds.
+     */
+    private boolean savePet(View dialogView, long petId, Runnable onSaved) {
         TextInputEditText nameInput = dialogView.findViewById(R.id.petNameInput);
         TextInputEditText breedInput = dialogView.findViewById(R.id.petBreedInput);
         TextInputEditText priceInput = dialogView.findViewById(R.id.petPriceInput);
@@ -253,38 +363,64 @@ public class PetsFragment extends Fragment {
         String details = detailsInput.getText().toString().trim();
         boolean available = availableSwitch.isChecked();
 
-        if (name.isEmpty() || breed.isEmpty() || priceStr.isEmpty()) {
-            Toast.makeText(getContext(), "Please fill in all required fields", Toast.LENGTH_SHORT).show();
+        String error = PetValidator.validate(name, breed, priceStr);
+        if (error != null) {
+            Toast.makeText(getContext(), error, Toast.LENGTH_SHORT).show();
             return false;
         }
+        long price = Money.parse(priceStr);
 
-        double price;
-        try {
-            price = Double.parseDouble(priceStr);
-        } catch (NumberFormatException e) {
-            Toast.makeText(getContext(), "Invalid price format", Toast.LENGTH_SHORT).show();
-            return false;
-        }
+        PetRepository.Callback<Boolean> saved = new PetRepository.Callback<Boolean>() {
+            @Override
+            public void onResult(Boolean success) {
+                if (success) {
+                    Toast.makeText(getContext(),
+                        petId == -1 ? "Pet added successfully" : "Pet updated successfully",
+                        Toast.LENGTH_SHORT).show();
+                    onSaved.run();
+                } else {
+                    Toast.makeText(getContext(), "Error saving pet", Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                Toast.makeText(getContext(), "Error saving pet", Toast.LENGTH_SHORT).show();
+            }
+        };
 
         if (petId == -1) {
             // Add new pet
-            long newId = dbHelper.insertPet(name, breed, price, available, details, selectedImageUri);
-            if (newId != -1) {
-                Toast.makeText(getContext(), "Pet added successfully", Toast.LENGTH_SHORT).show();
-                return true;
-            }
+            String imageUri = selectedImageUri;
+            repository.executeWrite(() ->
+                dbHelper.insertPet(name, breed, price, available, details, imageUri) != -1, saved);
         } else {
             // Update existing pet
             Pet pet = new Pet(petId, name, breed, price, available, details, selectedImageUri); // Fixed: Added imageUri parameter
-            int result = dbHelper.updatePet(pet);
-            if (result > 0) {
-                Toast.makeText(getContext(), "Pet updated successfully", Toast.LENGTH_SHORT).show();
-                return true;
-            }
+            repository.executeWrite(() -> dbHelper.updatePet(pet) > 0, saved);
         }
+        return true;
+    }
 
-        Toast.makeText(getContext(), "Error saving pet", Toast.LENGTH_SHORT).show();
-        return false;
+    // List rows carry no details, so fetch the full pet before editing
+    private void openPet(PetListItem item) {
+        repository.getPet(item.getId(), new PetRepository.Callback<Pet>() {
+            @Override
+            public void onResult(Pet pet) {
+                if (pet == null) {
+                    Toast.makeText(getContext(), "This pet no longer exists", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                showEditPetDialog(pet);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                Toast.makeText(getContext(), "Error loading pet: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void showEditPetDialog(Pet pet) {
@@ -293,7 +429,7 @@ public class PetsFragment extends Fragment {
         // Pre-fill the form
         ((TextInputEditText) dialogView.findViewById(R.id.petNameInput)).setText(pet.getName());
         ((TextInputEditText) dialogView.findViewById(R.id.petBreedInput)).setText(pet.getBreed());
-        ((TextInputEditText) dialogView.findViewById(R.id.petPriceInput)).setText(String.valueOf(pet.getPrice()));
+        ((TextInputEditText) dialogView.findViewById(R.id.petPriceInput)).setText(Money.toPlainString(pet.getPrice()));
         ((TextInputEditText) dialogView.findViewById(R.id.petDetailsInput)).setText(pet.getDetails());
         ((SwitchMaterial) dialogView.findViewById(R.id.petAvailableSwitch)).setChecked(pet.isAvailable());
 
@@ -312,27 +448,22 @@ public class PetsFragment extends Fragment {
 
         dialog.setOnShowListener(dialogInterface -> {
             Button positiveButton = dialog.getButton(AlertDialog.BUTTON_POSITIVE);
-            positiveButton.setOnClickListener(view -> {
-                if (savePet(dialogView, pet.getId())) {
-                    dialog.dismiss();
-                    setupRecyclerView(); // Refresh list
-                }
-            });
+            positiveButton.setOnClickListener(view -> savePet(dialogView, pet.getId(), dialog::dismiss));
         });
 
         dialog.show();
     }
 
-    private void deletePet(Pet pet) {
+    private void deletePet(PetListItem pet) {
         new MaterialAlertDialogBuilder(getContext())
             .setTitle("Delete Pet")
             .setMessage("Are you sure you want to delete this pet?")
             .setPositiveButton("Delete", (dialog, which) -> {
-                int result = dbHelper.deletePet(pet.getId());
-                if (result > 0) {
-                    Toast.makeText(getContext(), "Pet deleted successfully", Toast.LENGTH_SHORT).show();
-                    setupRecyclerView(); // Refresh list
-                }
+                repository.deletePet(pet.getId(), result -> {
+                    if (result > 0) {
+                        Toast.makeText(getContext(), "Pet deleted successfully", Toast.LENGTH_SHORT).show();
+                    }
+                });
             })
             .setNegativeButton("Cancel", null)
             .show();
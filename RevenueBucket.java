@@ -0,0 +1,19 @@
+package com.example.petmanagement;
+
+public class RevenueBucket {
+    private final String period;
+    private final long revenue;
+    private final int saleCount;
+
+    public RevenueBucket(String period, long revenue, int saleCount) {
+        this.period = period;
+        this.revenue = revenue;
+        this.saleCount = saleCount;
+    }
+
+    // "yyyy-MM-dd" for a day, "yyyy-MM" for a month
+    public String getPeriod() { return period; }
+    // In minor units; see Money
+    public long getRevenue() { return revenue; }
+    public int getSaleCount() { return saleCount; }
+}
@@ -1,19 +1,38 @@
 package com.example.petmanagement;
 
+import android.Manifest;
+import android.app.Activity;
+import android.content.Intent;
 import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.net.Uri;
 import android.os.Bundle;
 import android.widget.Toast;
 import androidx.preference.Preference;
+import androidx.preference.PreferenceCategory;
 import androidx.preference.PreferenceFragmentCompat;
 import androidx.preference.PreferenceManager;
 import androidx.appcompat.app.AlertDialog;
+import androidx.core.content.ContextCompat;
+import java.util.Locale;
 
 public class SettingsFragment extends PreferenceFragmentCompat implements
         SharedPreferences.OnSharedPreferenceChangeListener {
+    private static final int EXPORT_REQUEST = 10;
+    private static final int IMPORT_REQUEST = 11;
+    private static final int NOTIFICATION_PERMISSION_REQUEST = 12;
+
+    private PetRepository repository;
+    private PetExporter.Format exportFormat;
+    private boolean exportGzip;
+    private PetExporter.Task exportTask;
+    private PetImporter.Task importTask;
+    private PreferenceCategory diagnosticsCategory;
 
     @Override
     public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
         setPreferencesFromResource(R.xml.root_preferences, rootKey);
+        repository = new PetRepository(DatabaseHelper.getInstance(requireContext()));
 
         // Setup preference clicks
         setupPreferenceClicks();
@@ -23,6 +42,65 @@ public class SettingsFragment extends PreferenceFragmentCompat implements
         if (versionPreference != null) {
             versionPreference.setSummary("1.0.0");
         }
+
+        if (Diagnostics.ENABLED) {
+            setupDiagnostics();
+        }
+    }
+
+    // Built in code rather than in root_preferences so it disappears with Diagnostics.ENABLED
+    private void setupDiagnostics() {
+        diagnosticsCategory = new PreferenceCategory(requireContext());
+        diagnosticsCategory.setTitle("Diagnostics");
+        diagnosticsCategory.setIconSpaceReserved(false);
+        getPreferenceScreen().addPreference(diagnosticsCategory);
+        showDiagnostics();
+    }
+
+    private void showDiagnostics() {
+        diagnosticsCategory.removeAll();
+
+        Preference refresh = new Preference(requireContext());
+        refresh.setTitle("Refresh timings");
+        refresh.setSummary("Latency percentiles since the app started or the last reset");
+        refresh.setIconSpaceReserved(false);
+        refresh.setOnPreferenceClickListener(preference -> {
+            showDiagnostics();
+            return true;
+        });
+        diagnosticsCategory.addPreference(refresh);
+
+        Preference reset = new Preference(requireContext());
+        reset.setTitle("Reset timings");
+        reset.setIconSpaceReserved(false);
+        reset.setOnPreferenceClickListener(preference -> {
+            Diagnostics.resetAll();
+            showDiagnostics();
+            Toast.makeText(getContext(), "Timings reset", Toast.LENGTH_SHORT).show();
+            return true;
+        });
+        diagnosticsCategory.addPreference(reset);
+
+        for (Diagnostics.Timer timer : Diagnostics.getTimers()) {
+            if (timer.getCount() == 0) continue;
+            Preference row = new Preference(requireContext());
+            row.setTitle(timer.getName());
+            row.setSummary(String.format(Locale.US,
+                "p50 %s, p95 %s, p99 %s\n%d calls, %.1f rows avg, max %s",
+                formatNanos(timer.getPercentileNanos(50)),
+                formatNanos(timer.getPercentileNanos(95)),
+                formatNanos(timer.getPercentileNanos(99)),
+                timer.getCount(), timer.getMeanRows(), formatNanos(timer.getMaxNanos())));
+            row.setSelectable(false);
+            row.setIconSpaceReserved(false);
+            diagnosticsCategory.addPreference(row);
+        }
+    }
+
+    private static String formatNanos(long nanos) {
+        return nanos < 1_000_000
+            ? String.format(Locale.US, "%.0f us", nanos / 1e3)
+            : String.format(Locale.US, "%.1f ms", nanos / 1e6);
     }
 
     private void setupPreferenceClicks() {
@@ -62,6 +140,9 @@ public class SettingsFragment extends PreferenceFragmentCompat implements
         super.onResume();
         getPreferenceScreen().getSharedPreferences()
                 .registerOnSharedPreferenceChangeListener(this);
+        if (diagnosticsCategory != null) {
+            showDiagnostics();
+        }
     }
 
     @Override
@@ -71,6 +152,18 @@ public class SettingsFragment extends PreferenceFragmentCompat implements
                 .unregisterOnSharedPreferenceChangeListener(this);
     }
 
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        repository.cancelAll();
+        if (exportTask != null) {
+            exportTask.cancel();
+        }
+        if (importTask != null) {
+            importTask.cancel();
+        }
+    }
+
     @Override
     public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
         if (key.equals("dark_mode")) {
@@ -86,13 +179,171 @@ public class SettingsFragment extends PreferenceFragmentCompat implements
     }
 
     private void exportData() {
-        // TODO: Implement data export
-        Toast.makeText(getContext(), "Export feature coming soon", Toast.LENGTH_SHORT).show();
+        String[] formats = {"CSV", "JSON", "CSV (gzip)", "JSON (gzip)"};
+        new AlertDialog.Builder(requireContext())
+            .setTitle("Export Data")
+            .setItems(formats, (dialog, which) -> {
+                exportFormat = which % 2 == 0 ? PetExporter.Format.CSV : PetExporter.Format.JSON;
+                exportGzip = which >= 2;
+                String extension = exportFormat == PetExporter.Format.CSV ? ".csv" : ".json";
+
+                // Let the user pick where the file goes
+                Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+                intent.addCategory(Intent.CATEGORY_OPENABLE);
+                intent.setType(exportGzip ? "application/gzip"
+                    : exportFormat == PetExporter.Format.CSV ? "text/csv" : "application/json");
+                intent.putExtra(Intent.EXTRA_TITLE, "pets" + extension + (exportGzip ? ".gz" : ""));
+                startActivityForResult(intent, EXPORT_REQUEST);
+            })
+            .show();
+    }
+
+    @Override
+    public void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (requestCode == EXPORT_REQUEST && resultCode == Activity.RESULT_OK
+                && data != null && data.getData() != null) {
+            startExport(data.getData());
+        } else if (requestCode == IMPORT_REQUEST && resultCode == Activity.RESULT_OK
+                && data != null && data.getData() != null) {
+            startImport(data.getData());
+        }
+    }
+
+    private void startExport(Uri target) {
+        AlertDialog progressDialog = new AlertDialog.Builder(requireContext())
+            .setTitle("Exporting")
+            .setMessage("Preparing export...")
+            .setCancelable(false)
+            .setNegativeButton("Cancel", (dialog, which) -> {
+                if (exportTask != null) {
+                    exportTask.cancel();
+                }
+            })
+            .show();
+
+        PetExporter exporter = new PetExporter(requireContext(), DatabaseHelper.getInstance(requireContext()));
+        exportTask = exporter.export(target, exportFormat, exportGzip, new PetExporter.Listener() {
+            @Override
+            public void onProgress(int exported, int total) {
+                progressDialog.setMessage("Exported " + exported + " of " + total + " pets");
+            }
+
+            @Override
+            public void onFinished(int exported) {
+                exportTask = null;
+                progressDialog.dismiss();
+                if (getContext() != null) {
+                    Toast.makeText(getContext(), "Exported " + exported + " pets", Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onCancelled() {
+                exportTask = null;
+                progressDialog.dismiss();
+                if (getContext() != null) {
+                    Toast.makeText(getContext(), "Export cancelled", Toast.LENGTH_SHORT).show();
+                }
+            }
+
+            @Override
+            public void onError(Exception e) {
+                exportTask = null;
+                progressDialog.dismiss();
+                if (getContext() != null) {
+                    Toast.makeText(getContext(), "Error exporting data: " + e.getMessage(),
+                        Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
     }
 
     private void importData() {
-        // TODO: Implement data import
-        Toast.makeText(getContext(), "Import feature coming soon", Toast.LENGTH_SHORT).show();
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("*/*");
+        intent.putExtra(Intent.EXTRA_MIME_TYPES, new String[]{
+            "text/csv", "text/comma-separated-values", "application/json", "application/gzip", "text/plain"});
+        startActivityForResult(intent, IMPORT_REQUEST);
+    }
+
+    private void startImport(Uri source) {
+        try {
+            // Keeps access to the file so an interrupted import can resume after a restart
+            requireContext().getContentResolver()
+                .takePersistableUriPermission(source, Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        } catch (SecurityException ignored) {
+        }
+
+        PetImporter importer = new PetImporter(requireContext(), DatabaseHelper.getInstance(requireContext()));
+        int checkpoint = importer.getCheckpoint(source);
+
+        AlertDialog progressDialog = new AlertDialog.Builder(requireContext())
+            .setTitle("Importing")
+            .setMessage(checkpoint > 0 ? "Resuming after row " + checkpoint + "..." : "Reading file...")
+            .setCancelable(false)
+            .setNegativeButton("Stop", (dialog, which) -> {
+                if (importTask != null) {
+                    importTask.cancel();
+                }
+            })
+            .show();
+
+        importTask = importer.importFrom(source, new PetImporter.Listener() {
+            @Override
+            public void onProgress(int rowsRead, BulkWriteResult written) {
+                progressDialog.setMessage("Read " + rowsRead + " rows, added " + written.getInserted() + " pets");
+            }
+
+            @Override
+            public void onFinished(PetImporter.Report report) {
+                importTask = null;
+                progressDialog.dismiss();
+                showImportReport("Import Complete", report);
+            }
+
+            @Override
+            public void onCancelled(PetImporter.Report report) {
+                importTask = null;
+                progressDialog.dismiss();
+                showImportReport("Import Stopped", report);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                importTask = null;
+                progressDialog.dismiss();
+                if (getContext() != null) {
+                    Toast.makeText(getContext(), "Error importing data: " + e.getMessage(),
+                        Toast.LENGTH_LONG).show();
+                }
+            }
+        });
+    }
+
+    private void showImportReport(String title, PetImporter.Report report) {
+        if (getContext() == null) return;
+
+        StringBuilder message = new StringBuilder()
+            .append("Added: ").append(report.getInserted())
+            .append("\nAlready in catalog: ").append(report.getDuplicates())
+            .append("\nInvalid rows: ").append(report.getInvalidRows())
+            .append("\nFailed: ").append(report.getFailed())
+            .append(String.format("\nTime: %.1f s (%.0f rows/s)",
+                report.getElapsedMillis() / 1000.0, report.getRowsPerSecond()));
+        if (report.getResumedFrom() > 0) {
+            message.append("\nResumed after row ").append(report.getResumedFrom());
+        }
+        for (String error : report.getErrors()) {
+            message.append("\n").append(error);
+        }
+
+        new AlertDialog.Builder(requireContext())
+            .setTitle(title)
+            .setMessage(message.toString())
+            .setPositiveButton("Close", null)
+            .show();
     }
 
     private void showClearDataDialog() {
@@ -105,22 +356,28 @@ public class SettingsFragment extends PreferenceFragmentCompat implements
     }
 
     private void clearAllData() {
-        try {
-            // Clear database
-            DatabaseHelper dbHelper = new DatabaseHelper(requireContext());
-            dbHelper.clearAllData();
-
-            // Clear preferences
-            SharedPreferences.Editor editor = PreferenceManager
-                .getDefaultSharedPreferences(requireContext()).edit();
-            editor.clear();
-            editor.apply();
-
-            Toast.makeText(getContext(), "All data cleared successfully", Toast.LENGTH_SHORT).show();
-        } catch (Exception e) {
-            Toast.makeText(getContext(), "Error clearing data: " + e.getMessage(), 
-                Toast.LENGTH_SHORT).show();
-        }
+        // Clear database
+        DatabaseHelper dbHelper = DatabaseHelper.getInstance(requireContext());
+        repository.clearAllData(new PetRepository.Callback<Void>() {
+            @Override
+            public void onResult(Void result) {
+                // Clear preferences
+                SharedPreferences.Editor editor = PreferenceManager
+                    .getDefaultSharedPreferences(requireContext()).edit();
+                editor.clear();
+                editor.apply();
+                // A checkpoint would resume a re-import past rows that no longer exist
+                new PetImporter(requireContext(), dbHelper).clearAllCheckpoints();
+
+                Toast.makeText(getContext(), "All data cleared successfully", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Toast.makeText(getContext(), "Error clearing data: " + e.getMessage(), 
+                    Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void showPrivacyPolicy() {
@@ -146,8 +403,16 @@ public class SettingsFragment extends PreferenceFragmentCompat implements
             Toast.LENGTH_SHORT).show();
     }
 
+    // LowStockMonitor reads the preference itself on every run
     private void updateNotifications(boolean enabled) {
-        // TODO: Implement notification handling
+        if (!enabled) {
+            LowStockMonitor.dismiss(requireContext());
+        } else if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(requireContext(),
+                    Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+            requestPermissions(new String[]{Manifest.permission.POST_NOTIFICATIONS},
+                NOTIFICATION_PERMISSION_REQUEST);
+        }
         Toast.makeText(getContext(), 
             "Notifications " + (enabled ? "enabled" : "disabled"), 
             Toast.LENGTH_SHORT).show();
@@ -0,0 +1,71 @@
+package com.example.petmanagement;
+
+import java.util.Locale;
+
+/**
+ * A row of the species table with the number of pets filed under it. Pets
+ * are filed by breed when they are written; see {@link #classify(String)}.
+ */
+public class Species {
+    public static final long DOG = 1;
+    public static final long CAT = 2;
+    public static final long OTHER = 3;
+
+    // Checked in order, so a breed naming both (e.g. "cat terrier") counts as a dog
+    private static final String[] DOG_KEYWORDS = {
+            "dog", "puppy", "retriever", "terrier", "shepherd", "bulldog", "poodle", "labrador",
+            "beagle", "husky", "chihuahua", "dachshund", "boxer", "rottweiler", "spaniel", "pug",
+            "collie", "mastiff", "doberman", "corgi", "shih tzu", "pomeranian", "malinois"
+    };
+    private static final String[] CAT_KEYWORDS = {
+            "cat", "kitten", "persian", "siamese", "maine coon", "sphynx", "bengal", "ragdoll",
+            "shorthair", "abyssinian", "tabby"
+    };
+
+    private final long id;
+    private final String name;
+    private final int petCount;
+
+    public Species(long id, String name, int petCount) {
+        this.id = id;
+        this.name = name;
+        this.petCount = petCount;
+    }
+
+    public long getId() { return id; }
+    public String getName() { return name; }
+    public int getPetCount() { return petCount; }
+
+    /** Species id for a free-text breed. */
+    public static long classify(String breed) {
+        if (breed == null) return OTHER;
+        String lower = breed.toLowerCase(Locale.ROOT);
+        if (containsAny(lower, DOG_KEYWORDS)) return DOG;
+        if (containsAny(lower, CAT_KEYWORDS)) return CAT;
+        return OTHER;
+    }
+
+    /** The same rules as {@link #classify(String)} as a SQL expression, for migrating existing rows. */
+    static String classifySql(String breedColumn) {
+        return "CASE WHEN " + likeAny(breedColumn, DOG_KEYWORDS) + " THEN " + DOG +
+                " WHEN " + likeAny(breedColumn, CAT_KEYWORDS) + " THEN " + CAT +
+                " ELSE " + OTHER + " END";
+    }
+
+    private static boolean containsAny(String text, String[] keywords) {
+        for (String keyword : keywords) {
+            if (text.contains(keyword)) return true;
+        }
+        return false;
+    }
+
+    // LIKE is case-insensitive for ASCII, which covers every keyword
+    private static String likeAny(String column, String[] keywords) {
+        StringBuilder sql = new StringBuilder("(");
+        for (int i = 0; i < keywords.length; i++) {
+            if (i > 0) sql.append(" OR ");
+            sql.append(column).append(" LIKE '%").append(keywords[i]).append("%'");
+        }
+        return sql.append(")").toString();
+    }
+}
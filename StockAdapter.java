@@ -0,0 +1,84 @@
+package com.example.petmanagement;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.List;
+
+public class StockAdapter extends WindowedAdapter<StockItem, StockAdapter.StockViewHolder> {
+    private static final DiffUtil.ItemCallback<StockItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<StockItem>() {
+        @Override
+        public boolean areItemsTheSame(StockItem oldItem, StockItem newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(StockItem oldItem, StockItem newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private StockClickListener clickListener;
+
+    public interface StockClickListener {
+        void onStockClick(StockItem item);
+        void onStockLongClick(StockItem item);
+    }
+
+    public StockAdapter(List<StockItem> items, StockClickListener listener) {
+        super(DIFF_CALLBACK, items);
+        this.clickListener = listener;
+    }
+
+    @Override
+    public StockViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+            .inflate(android.R.layout.simple_list_item_2, parent, false);
+        return new StockViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(StockViewHolder holder, int position) {
+        StockItem item = getItem(position);
+        holder.bind(item);
+
+        holder.itemView.setOnClickListener(v -> {
+            if (clickListener != null) {
+                clickListener.onStockClick(item);
+            }
+        });
+
+        holder.itemView.setOnLongClickListener(v -> {
+            if (clickListener != null) {
+                clickListener.onStockLongClick(item);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @Override
+    protected long getItemId(StockItem item) {
+        return item.getId();
+    }
+
+    static class StockViewHolder extends RecyclerView.ViewHolder {
+        private TextView itemName;
+        private TextView itemStock;
+
+        public StockViewHolder(View itemView) {
+            super(itemView);
+            itemName = itemView.findViewById(android.R.id.text1);
+            itemStock = itemView.findViewById(android.R.id.text2);
+        }
+
+        public void bind(StockItem item) {
+            itemName.setText(item.getName());
+            String stock = item.getSku() + " - " + item.getQuantity() + " on hand - reorder at " + item.getReorderLevel();
+            itemStock.setText(item.isLowStock() ? stock + " - Low stock" : stock);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.petmanagement;
+
+import java.util.Objects;
+
+/** A supply line (food, cages, ...) counted by quantity on hand. */
+public class StockItem {
+    private final long id;
+    private final String sku;
+    private final String name;
+    private final int quantity;
+    private final int reorderLevel;
+
+    public StockItem(long id, String sku, String name, int quantity, int reorderLevel) {
+        this.id = id;
+        this.sku = sku;
+        this.name = name;
+        this.quantity = quantity;
+        this.reorderLevel = reorderLevel;
+    }
+
+    public long getId() { return id; }
+    public String getSku() { return sku; }
+    public String getName() { return name; }
+    public int getQuantity() { return quantity; }
+    public int getReorderLevel() { return reorderLevel; }
+
+    /** Same rule as the low-stock index: at or below the reorder level. */
+    public boolean isLowStock() {
+        return quantity <= reorderLevel;
+    }
+
+    // Content equality, used by StockAdapter to tell an edited row from an unchanged one
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StockItem)) return false;
+        StockItem other = (StockItem) o;
+        return id == other.id
+            && quantity == other.quantity
+            && reorderLevel == other.reorderLevel
+            && Objects.equals(sku, other.sku)
+            && Objects.equals(name, other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, sku, name, quantity, reorderLevel);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.petmanagement;
+
+import java.util.List;
+
+/** Pages stock items by name, optionally only those at or below their reorder level. */
+public class StockPager extends KeysetPager<StockItem> {
+    private final PetRepository repository;
+    private boolean lowStockOnly;
+
+    public StockPager(PetRepository repository, StockAdapter adapter) {
+        super(adapter, "stock");
+        this.repository = repository;
+    }
+
+    public void reload(boolean lowStockOnly) {
+        this.lowStockOnly = lowStockOnly;
+        reload();
+    }
+
+    @Override
+    protected PetRepository.Task loadAfter(StockItem anchor, int limit,
+                                           PetRepository.Callback<List<StockItem>> callback) {
+        return repository.getStockItemsAfter(lowStockOnly, anchor, limit, callback);
+    }
+
+    @Override
+    protected PetRepository.Task loadBefore(StockItem anchor, int limit,
+                                            PetRepository.Callback<List<StockItem>> callback) {
+        return repository.getStockItemsBefore(lowStockOnly, anchor, limit, callback);
+    }
+
+    @Override
+    protected PetRepository.Task loadFrom(StockItem anchor, int limit,
+                                          PetRepository.Callback<List<StockItem>> callback) {
+        return repository.getStockItemsFrom(lowStockOnly, anchor, limit, callback);
+    }
+}
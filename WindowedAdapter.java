@@ -0,0 +1,84 @@
+package com.example.petmanagement;
+
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adapter over a window of rows that a {@link KeysetPager} grows and trims
+ * one page at a time. Rows need a stable id; subclasses only create and bind
+ * view holders.
+ */
+public abstract class WindowedAdapter<T, VH extends RecyclerView.ViewHolder> extends RecyclerView.Adapter<VH> {
+    // Diffs run on the differ's background thread; only the rows that
+    // actually changed, moved, appeared or disappeared are dispatched.
+    private final AsyncListDiffer<T> differ;
+    // Last list handed to the differ, which may still be diffing against the displayed one
+    private List<T> latestList;
+
+    protected WindowedAdapter(DiffUtil.ItemCallback<T> diffCallback, List<T> items) {
+        differ = new AsyncListDiffer<>(this, diffCallback);
+        setHasStableIds(true);
+        submit(items != null ? new ArrayList<>(items) : new ArrayList<>());
+    }
+
+    protected abstract long getItemId(T item);
+
+    @Override
+    public int getItemCount() {
+        return differ.getCurrentList().size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItemId(getItem(position));
+    }
+
+    public void updateList(List<T> newList) {
+        submit(new ArrayList<>(newList));
+    }
+
+    public T getItem(int position) {
+        return differ.getCurrentList().get(position);
+    }
+
+    // Paging helpers. They build on latestList so back-to-back edits never start from a stale list.
+    public int getLoadedCount() {
+        return latestList.size();
+    }
+
+    public T getFirstLoaded() {
+        return latestList.isEmpty() ? null : latestList.get(0);
+    }
+
+    public T getLastLoaded() {
+        return latestList.isEmpty() ? null : latestList.get(latestList.size() - 1);
+    }
+
+    public void appendItems(List<T> items) {
+        List<T> next = new ArrayList<>(latestList);
+        next.addAll(items);
+        submit(next);
+    }
+
+    public void prependItems(List<T> items) {
+        List<T> next = new ArrayList<>(items);
+        next.addAll(latestList);
+        submit(next);
+    }
+
+    public void trimStart(int count) {
+        submit(new ArrayList<>(latestList.subList(count, latestList.size())));
+    }
+
+    public void trimEnd(int count) {
+        submit(new ArrayList<>(latestList.subList(0, latestList.size() - count)));
+    }
+
+    private void submit(List<T> list) {
+        latestList = list;
+        differ.submitList(list);
+    }
+}
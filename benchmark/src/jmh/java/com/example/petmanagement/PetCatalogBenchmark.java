@@ -0,0 +1,103 @@
+package com.example.petmanagement;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PetCatalog at the same sizes as PetStoreBenchmark, for comparing the
+ * in-memory paging, filters and totals with their queries. The sort orders
+ * are built once in setup, as they would be after the first page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PetCatalogBenchmark {
+    private static final PetQuery AVAILABLE = PetQuery.ALL.withAvailability(PetQuery.Availability.AVAILABLE);
+    private static final PetQuery AVAILABLE_BY_PRICE = AVAILABLE.withSort(PetQuery.Sort.PRICE_ASC);
+    private static final PetQuery DOGS_BY_NAME = PetQuery.ALL.withSpecies(Species.DOG);
+    private static final PetQuery SOLD = PetQuery.ALL.withAvailability(PetQuery.Availability.SOLD);
+    private static final PetQuery[] TEXT = {PetQuery.ALL.withText("gold"), PetQuery.ALL.withText("lab")};
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private PetCatalog catalog;
+    private List<Pet> pets;
+    private PetListItem middle;
+    private int calls;
+
+    @Setup(Level.Trial)
+    public void load() {
+        pets = PetFixtures.generate(new Random(42), rows);
+        catalog = fill();
+        catalog.findIds(DOGS_BY_NAME);
+        List<PetListItem> firstPages = catalog.getPetsAfter(AVAILABLE_BY_PRICE, null, rows / 2);
+        middle = firstPages.get(firstPages.size() - 1);
+    }
+
+    private PetCatalog fill() {
+        PetCatalog filled = new PetCatalog();
+        for (int i = 0; i < pets.size(); i++) {
+            Pet pet = pets.get(i);
+            filled.put(i + 1, pet.getName(), pet.getBreed(), pet.getPrice(), pet.isAvailable(), pet.getImageUri());
+        }
+        return filled;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public PetCatalog fillCatalog() {
+        return fill();
+    }
+
+    // Scrolling: same query as the last page, so only the anchor is looked up
+    @Benchmark
+    public List<PetListItem> nextPage() {
+        return catalog.getPetsAfter(AVAILABLE_BY_PRICE, middle, DatabaseHelper.PAGE_SIZE);
+    }
+
+    // Picking another filter or sort: every call refilters the whole catalog
+    @Benchmark
+    public List<PetListItem> switchFilter() {
+        PetQuery query = (calls++ & 1) == 0 ? AVAILABLE_BY_PRICE : DOGS_BY_NAME;
+        return catalog.getPetsAfter(query, null, DatabaseHelper.PAGE_SIZE);
+    }
+
+    @Benchmark
+    public long[] searchText() {
+        return catalog.findIds(TEXT[calls++ & 1]);
+    }
+
+    @Benchmark
+    public long soldRevenue() {
+        return catalog.sumPrices(SOLD);
+    }
+
+    @Benchmark
+    public int availableCount() {
+        return catalog.count(AVAILABLE);
+    }
+
+    // Rewrites the first pet, which also drops the sort orders
+    @Benchmark
+    public void putExisting() {
+        Pet pet = pets.get(0);
+        catalog.put(1, pet.getName(), pet.getBreed(), pet.getPrice(), pet.isAvailable(), pet.getImageUri());
+    }
+}
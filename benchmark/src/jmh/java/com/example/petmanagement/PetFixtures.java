@@ -0,0 +1,34 @@
+package com.example.petmanagement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/** Generated pets shared by the benchmarks, so every one of them runs on the same shape of data. */
+final class PetFixtures {
+    private static final String[] NAMES = {
+            "Max", "Bella", "Charlie", "Luna", "Rocky", "Daisy", "Milo", "Coco", "Goldie", "Simba"
+    };
+    private static final String[] BREEDS = {
+            "Golden Retriever", "Labrador", "German Shepherd", "Persian", "Siamese", "Maine Coon",
+            "Beagle", "Bulldog", "Budgerigar", "Holland Lop"
+    };
+
+    private PetFixtures() {
+    }
+
+    // Ids are 0, as for rows about to be inserted. About one pet in three is
+    // sold, so the sale triggers and rollups see real traffic.
+    static List<Pet> generate(Random random, int count) {
+        List<Pet> pets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = NAMES[random.nextInt(NAMES.length)] + " " + i;
+            String breed = BREEDS[random.nextInt(BREEDS.length)];
+            long price = 500_000 + random.nextInt(500) * 100_000L;
+            pets.add(new Pet(0, name, breed, price, random.nextInt(3) != 0,
+                    "Friendly " + breed.toLowerCase(Locale.ROOT) + ", vaccinated", null));
+        }
+        return pets;
+    }
+}
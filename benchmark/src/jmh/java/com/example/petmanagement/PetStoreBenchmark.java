@@ -0,0 +1,94 @@
+package com.example.petmanagement;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The pet data layer against a catalog of 1k, 100k and 1M pets, through
+ * JdbcPetStore on the same schema and SQL the app runs. Each trial loads a
+ * fresh database file. Write benchmarks add rows as they run, so the table
+ * ends a trial somewhat larger than {@code rows}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PetStoreBenchmark {
+    private static final int BULK_SIZE = 1000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private File file;
+    private JdbcPetStore store;
+    private List<Pet> bulk;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException, SQLException {
+        file = File.createTempFile("pets", ".db");
+        file.delete();
+        store = new JdbcPetStore("jdbc:sqlite:" + file.getAbsolutePath());
+        store.insertPets(PetFixtures.generate(new Random(42), rows));
+        bulk = PetFixtures.generate(new Random(7), BULK_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        store.close();
+        new File(file.getPath() + "-wal").delete();
+        new File(file.getPath() + "-shm").delete();
+        file.delete();
+    }
+
+    @Benchmark
+    public long insertPet() {
+        return store.insertPet("Bench " + counter++, "Beagle", 2_500_000, true, "Added by the benchmark", null);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BulkWriteResult bulkLoad() {
+        return store.insertPets(bulk);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Pet> getAllPets() {
+        return store.getAllPets();
+    }
+
+    @Benchmark
+    public List<PetListItem> searchPets() {
+        return store.searchPets("gold ret");
+    }
+
+    @Benchmark
+    public DashboardStats getDashboardStats() {
+        return store.getDashboardStats();
+    }
+
+    @Benchmark
+    public List<RevenueBucket> getMonthlyRevenue() {
+        return store.getMonthlyRevenue(12);
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.petmanagement;
+
+import static com.example.petmanagement.DatabaseHelper.*;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * PetStore over an embedded SQLite reached through JDBC (e.g. sqlite-jdbc),
+ * for running the data layer on a plain JVM. The schema comes from
+ * PetSchema and the statements mirror DatabaseHelper's, so timings track
+ * what the device runs. Only uses compile-time constants from
+ * DatabaseHelper, so android.jar is needed to compile but not to run.
+ * Not thread-safe; use one store per thread.
+ */
+public class JdbcPetStore implements PetStore, Closeable {
+    private static final String PET_COLUMNS = COLUMN_ID + ", " + COLUMN_NAME + ", " + COLUMN_BREED + ", " +
+            COLUMN_PRICE + ", " + COLUMN_AVAILABLE + ", " + COLUMN_DETAILS + ", " + COLUMN_IMAGE_URI;
+    private static final String LIST_COLUMNS_P = "p." + COLUMN_ID + ", p." + COLUMN_NAME + ", p." +
+            COLUMN_BREED + ", p." + COLUMN_PRICE + ", p." + COLUMN_AVAILABLE + ", p." + COLUMN_IMAGE_URI;
+
+    private final Connection connection;
+    private final boolean fts5;
+    private PreparedStatement insertPet;
+
+    /** Opens the database at url, e.g. "jdbc:sqlite:/tmp/pets.db", creating the schema if it is empty. */
+    public JdbcPetStore(String url) throws SQLException {
+        connection = DriverManager.getConnection(url);
+        try (Statement statement = connection.createStatement()) {
+            // Same settings DatabaseHelper uses on the device
+            statement.execute("PRAGMA journal_mode = WAL");
+            statement.execute("PRAGMA synchronous = NORMAL");
+            statement.execute("PRAGMA cache_size = -8192");
+            statement.execute("PRAGMA temp_store = MEMORY");
+
+            long version = queryLong("PRAGMA user_version");
+            if (version == 0) {
+                connection.setAutoCommit(false);
+                fts5 = PetSchema.create(sql -> execute(statement, sql));
+                statement.execute("PRAGMA user_version = " + DATABASE_VERSION);
+                connection.commit();
+                connection.setAutoCommit(true);
+            } else if (version == DATABASE_VERSION) {
+                try (ResultSet rs = statement.executeQuery(
+                        "SELECT sql FROM sqlite_master WHERE name = '" + TABLE_PETS_FTS + "'")) {
+                    fts5 = rs.next() && rs.getString(1).toLowerCase(Locale.ROOT).contains("fts5");
+                }
+            } else {
+                throw new SQLException("Schema version " + version + " needs the app to upgrade it");
+            }
+        }
+    }
+
+    private static void execute(Statement statement, String sql) {
+        try {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long insertPet(String name, String breed, long price, boolean available, String details, String imageUri) {
+        try {
+            if (insertPet == null) {
+                insertPet = connection.prepareStatement(INSERT_PET_SQL);
+            }
+            bindPet(insertPet, new Pet(0, name, breed, price, available, details, imageUri));
+            insertPet.executeUpdate();
+            return queryLong("SELECT last_insert_rowid()");
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public BulkWriteResult insertPets(Iterable<Pet> pets) {
+        BulkWriteResult result = new BulkWriteResult();
+        Iterator<Pet> iterator = pets.iterator();
+        int index = 0;
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_PET_SQL)) {
+            connection.setAutoCommit(false);
+            try {
+                while (iterator.hasNext()) {
+                    for (int inBatch = 0; inBatch < DEFAULT_BATCH_SIZE && iterator.hasNext(); inBatch++, index++) {
+                        Pet pet = iterator.next();
+                        try {
+                            bindPet(insert, pet);
+                            insert.executeUpdate();
+                            result.addInserted();
+                        } catch (SQLException e) {
+                            result.addFailure(index, pet, e);
+                        }
+                    }
+                    connection.commit();
+                    result.addBatch();
+                }
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return result;
+    }
+
+    @Override
+    public int updatePet(Pet pet) {
+        try (PreparedStatement update = connection.prepareStatement(UPDATE_PET_SQL)) {
+            bindPet(update, pet);
+            update.setLong(8, pet.getId());
+            return update.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int deletePet(long petId) {
+        try (PreparedStatement delete = connection.prepareStatement(
+                "DELETE FROM " + TABLE_PETS + " WHERE " + COLUMN_ID + " = ?")) {
+            delete.setLong(1, petId);
+            return delete.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Pet getPetById(long petId) {
+        List<Pet> pets = queryPets("SELECT " + PET_COLUMNS + " FROM " + TABLE_PETS +
+                " WHERE " + COLUMN_ID + " = " + petId);
+        return pets.isEmpty() ? null : pets.get(0);
+    }
+
+    @Override
+    public List<Pet> getAllPets() {
+        return queryPets("SELECT " + PET_COLUMNS + " FROM " + TABLE_PETS);
+    }
+
+    @Override
+    public List<PetListItem> searchPets(String query) {
+        String match = PetSchema.toMatchQuery(query);
+        String sql;
+        if (match == null) {
+            sql = "SELECT " + LIST_COLUMNS_P + " FROM " + TABLE_PETS + " p ORDER BY p." + COLUMN_NAME +
+                    " COLLATE NOCASE, p." + COLUMN_ID + " LIMIT " + PAGE_SIZE;
+        } else if (fts5) {
+            sql = "SELECT " + LIST_COLUMNS_P + " FROM " + TABLE_PETS + " p JOIN " + TABLE_PETS_FTS + " f" +
+                    " ON f.rowid = p." + COLUMN_ID + " WHERE " + TABLE_PETS_FTS + " MATCH ?1" +
+                    " ORDER BY " + FTS5_RANK;
+        } else {
+            sql = "SELECT " + LIST_COLUMNS_P + " FROM " + TABLE_PETS + " p JOIN " + TABLE_PETS_FTS + " f" +
+                    " ON f.docid = p." + COLUMN_ID + " WHERE " + TABLE_PETS_FTS + " MATCH ?1" +
+                    " ORDER BY p." + COLUMN_ID + " IN (SELECT docid FROM " + TABLE_PETS_FTS +
+                    " WHERE " + COLUMN_NAME + " MATCH ?1) DESC, p." + COLUMN_NAME + " COLLATE NOCASE";
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            if (match != null) {
+                statement.setString(1, match);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                List<PetListItem> items = new ArrayList<>();
+                while (rs.next()) {
+                    items.add(new PetListItem(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            rs.getLong(4), rs.getInt(5) == 1, rs.getString(6)));
+                }
+                return items;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public DashboardStats getDashboardStats() {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT " + COLUMN_TOTAL_COUNT + ", " +
+                     COLUMN_AVAILABLE_COUNT + ", " + COLUMN_SOLD_COUNT + ", " + COLUMN_TOTAL_REVENUE +
+                     " FROM " + TABLE_PET_STATS + " WHERE " + COLUMN_ID + " = 1")) {
+            long currentMonth = readBucket(PetSchema.monthKey(0)).getRevenue();
+            long previousMonth = readBucket(PetSchema.monthKey(1)).getRevenue();
+            int lowStock = (int) queryLong("SELECT COUNT(*) FROM " + TABLE_STOCK_ITEMS + " WHERE " + LOW_STOCK);
+            if (!rs.next()) {
+                return new DashboardStats(0, 0, 0, 0, currentMonth, previousMonth, lowStock);
+            }
+            return new DashboardStats(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getLong(4),
+                    currentMonth, previousMonth, lowStock);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<RevenueBucket> getMonthlyRevenue(int months) {
+        List<RevenueBucket> buckets = new ArrayList<>();
+        try {
+            for (int i = months - 1; i >= 0; i--) {
+                buckets.add(readBucket(PetSchema.monthKey(i)));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return buckets;
+    }
+
+    @Override
+    public void clearAllData() {
+        try (Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            try {
+                statement.execute("DELETE FROM " + TABLE_PETS);
+                statement.execute("DELETE FROM " + TABLE_SALES);
+                statement.execute("DELETE FROM " + TABLE_SALES_DAILY);
+                statement.execute("DELETE FROM " + TABLE_SALES_MONTHLY);
+                statement.execute("DELETE FROM " + TABLE_STOCK_ITEMS);
+                statement.execute("DELETE FROM " + TABLE_STOCK_CHANGES);
+                statement.execute("DELETE FROM " + TABLE_ACTIVITY_LOG);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (insertPet != null) insertPet.close();
+            connection.close();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private RevenueBucket readBucket(String period) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + COLUMN_REVENUE + ", " +
+                COLUMN_SALE_COUNT + " FROM " + TABLE_SALES_MONTHLY + " WHERE " + COLUMN_PERIOD + " = ?")) {
+            statement.setString(1, period);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? new RevenueBucket(period, rs.getLong(1), rs.getInt(2))
+                        : new RevenueBucket(period, 0, 0);
+            }
+        }
+    }
+
+    private List<Pet> queryPets(String sql) {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            List<Pet> pets = new ArrayList<>();
+            while (rs.next()) {
+                pets.add(new Pet(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4),
+                        rs.getInt(5) == 1, rs.getString(6), rs.getString(7)));
+            }
+            return pets;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    // Same parameter order as DatabaseHelper.bindPet
+    private static void bindPet(PreparedStatement statement, Pet pet) throws SQLException {
+        setText(statement, 1, pet.getName());
+        setText(statement, 2, pet.getBreed());
+        statement.setLong(3, pet.getPrice());
+        statement.setInt(4, pet.isAvailable() ? 1 : 0);
+        setText(statement, 5, pet.getDetails());
+        setText(statement, 6, pet.getImageUri());
+        statement.setLong(7, Species.classify(pet.getBreed()));
+    }
+
+    private static void setText(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.VARCHAR);
+        } else {
+            statement.setString(index, value);
+        }
+    }
+}